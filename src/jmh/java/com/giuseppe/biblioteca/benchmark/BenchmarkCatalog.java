@@ -0,0 +1,116 @@
+package com.giuseppe.biblioteca.benchmark;
+
+import com.giuseppe.biblioteca.BibliotecaApplication;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Avvia l'applicazione senza server web su un database H2 dedicato e lo popola con un catalogo sintetico
+ * riproducibile, condiviso da tutti i benchmark che hanno bisogno del contesto Spring.
+ */
+public final class BenchmarkCatalog {
+
+    public static final int AUTHORS = 1000;
+
+    public static final int GENRES = 20;
+
+    public static final int FIRST_YEAR = 1800;
+
+    public static final int YEARS = 225;
+
+    private static final long SEED = 42L;
+
+    private BenchmarkCatalog() {}
+
+    /**
+     * Avvia un contesto applicativo isolato.
+     *
+     * @param extraArgs argomenti aggiuntivi nel formato --chiave=valore
+     * @return il contesto avviato
+     */
+    public static ConfigurableApplicationContext start(String... extraArgs) {
+        SpringApplication application = new SpringApplication(BibliotecaApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                "spring.main.banner-mode", "off",
+                "logging.level.root", "warn"));
+        return application.run(extraArgs);
+    }
+
+    /**
+     * Inserisce nel catalogo il numero di libri richiesto, sempre con gli stessi valori.
+     *
+     * @param context il contesto applicativo
+     * @param size    il numero di libri da inserire
+     */
+    public static void seed(ConfigurableApplicationContext context, int size) {
+        context.getBean(IBookService.class).createBooks(books(size));
+    }
+
+    /**
+     * Genera una lista di libri sintetici, con ID valorizzati, per i benchmark che non usano il database.
+     *
+     * @param size il numero di libri
+     * @return i libri generati
+     */
+    public static List<BookDTO> detachedBooks(int size) {
+        List<BookDTO> books = new ArrayList<>(size);
+        Iterator<BookDTO> iterator = books(size);
+        long id = 1;
+        while (iterator.hasNext()) {
+            BookDTO book = iterator.next();
+            books.add(new BookDTO(id++, book.title(), book.author(), book.year(), book.genre()));
+        }
+        return books;
+    }
+
+    /**
+     * Genera in modo pigro libri sintetici senza ID, pronti per l'inserimento.
+     *
+     * @param size il numero di libri
+     * @return l'iteratore sui libri generati
+     */
+    public static Iterator<BookDTO> books(int size) {
+        Random random = new Random(SEED);
+        return new Iterator<>() {
+            private int generated;
+
+            @Override
+            public boolean hasNext() {
+                return generated < size;
+            }
+
+            @Override
+            public BookDTO next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                generated++;
+                return new BookDTO(null,
+                        "Titolo " + generated + " " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36),
+                        author(random.nextInt(AUTHORS)),
+                        FIRST_YEAR + random.nextInt(YEARS),
+                        genre(random.nextInt(GENRES)));
+            }
+        };
+    }
+
+    public static String author(int index) {
+        return "Autore " + index;
+    }
+
+    public static String genre(int index) {
+        return "Genere " + index;
+    }
+}
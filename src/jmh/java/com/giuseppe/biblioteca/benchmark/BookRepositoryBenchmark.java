@@ -0,0 +1,125 @@
+package com.giuseppe.biblioteca.benchmark;
+
+import com.giuseppe.biblioteca.model.Book;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misura ogni finder di {@link BookRepository} su un catalogo H2 popolato con dati sintetici,
+ * sia nella variante che restituisce entità sia in quella con proiezione su BookDTO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookRepositoryBenchmark {
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private BookRepository bookRepository;
+
+    private final String author = BenchmarkCatalog.author(7);
+
+    private final String genre = BenchmarkCatalog.genre(3);
+
+    private final int year = BenchmarkCatalog.FIRST_YEAR + 10;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkCatalog.start();
+        BenchmarkCatalog.seed(context, catalogSize);
+        bookRepository = context.getBean(BookRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> findByAuthor() {
+        return bookRepository.findByAuthor(author);
+    }
+
+    @Benchmark
+    public List<BookDTO> findDTOByAuthor() {
+        return bookRepository.findDTOByAuthor(author);
+    }
+
+    @Benchmark
+    public List<Book> findByGenre() {
+        return bookRepository.findByGenre(genre);
+    }
+
+    @Benchmark
+    public List<BookDTO> findDTOByGenre() {
+        return bookRepository.findDTOByGenre(genre);
+    }
+
+    @Benchmark
+    public List<Book> findByTitleContainingIgnoreCase() {
+        return bookRepository.findByTitleContainingIgnoreCase("olo 12");
+    }
+
+    @Benchmark
+    public List<BookDTO> findDTOByTitleContainingIgnoreCase() {
+        return bookRepository.findDTOByTitleContainingIgnoreCase("olo 12");
+    }
+
+    @Benchmark
+    public List<Book> findByAnnoLessThan() {
+        return bookRepository.findByAnnoLessThan(year);
+    }
+
+    @Benchmark
+    public List<BookDTO> findDTOByAnnoLessThan() {
+        return bookRepository.findDTOByAnnoLessThan(year);
+    }
+
+    @Benchmark
+    public int countByAuthor() {
+        return bookRepository.countByAuthor(author);
+    }
+
+    @Benchmark
+    public List<Book> findAllByOrderByAnnoDesc() {
+        return bookRepository.findAllByOrderByAnnoDesc();
+    }
+
+    @Benchmark
+    public List<BookDTO> findAllDTOByOrderByAnnoDesc() {
+        return bookRepository.findAllDTOByOrderByAnnoDesc();
+    }
+
+    @Benchmark
+    public List<Book> findByTitleOrAuthor() {
+        return bookRepository.findByTitleOrAuthor("Titolo 1", author);
+    }
+
+    @Benchmark
+    public List<BookDTO> findDTOByTitleOrAuthor() {
+        return bookRepository.findDTOByTitleOrAuthor("Titolo 1", author);
+    }
+}
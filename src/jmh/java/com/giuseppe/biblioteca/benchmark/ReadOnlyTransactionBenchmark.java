@@ -0,0 +1,116 @@
+package com.giuseppe.biblioteca.benchmark;
+
+import com.giuseppe.biblioteca.model.Book;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import com.giuseppe.biblioteca.service.IBookService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confronta le letture di grandi risultati in una transazione di lettura/scrittura, dove Hibernate tiene
+ * uno snapshot di ogni entità caricata e al commit esegue il dirty checking, con le stesse letture in una
+ * transazione di sola lettura con i suggerimenti read-only. Include le chiamate reali di IBookService,
+ * che leggono proiezioni su BookDTO.
+ *
+ * <p>Da eseguire con il profiler GC per vedere anche la memoria allocata per operazione:
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="-prof gc ReadOnlyTransaction"</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyTransactionBenchmark {
+
+    private static final String ALL_ENTITIES = "select b from Book b";
+
+    private static final String ENTITIES_BY_GENRE = "select b from Book b where b.genre = :genre";
+
+    @Param({"100000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private IBookService bookService;
+
+    private BookRepository bookRepository;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    private final String genre = BenchmarkCatalog.genre(3);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkCatalog.start("--spring.cache.type=none");
+        BenchmarkCatalog.seed(context, catalogSize);
+        bookService = context.getBean(IBookService.class);
+        bookRepository = context.getBean(BookRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int allEntitiesReadWrite() {
+        return readWrite.execute(status ->
+                entityManager.createQuery(ALL_ENTITIES, Book.class).getResultList().size());
+    }
+
+    @Benchmark
+    public int allEntitiesReadOnly() {
+        return readOnly.execute(status -> bookRepository.findAll().size());
+    }
+
+    @Benchmark
+    public int genreEntitiesReadWrite() {
+        return readWrite.execute(status -> entityManager.createQuery(ENTITIES_BY_GENRE, Book.class)
+                .setParameter("genre", genre).getResultList().size());
+    }
+
+    @Benchmark
+    public int genreEntitiesReadOnly() {
+        return readOnly.execute(status -> bookRepository.findByGenre(genre).size());
+    }
+
+    @Benchmark
+    public List<BookDTO> getAllBooks() {
+        return bookService.getAllBooks();
+    }
+
+    @Benchmark
+    public List<BookDTO> findBooksByGenre() {
+        return bookService.findBooksByGenre(genre);
+    }
+}
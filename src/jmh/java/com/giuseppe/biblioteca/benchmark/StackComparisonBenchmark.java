@@ -0,0 +1,100 @@
+package com.giuseppe.biblioteca.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Confronta via HTTP lo stack servlet/JPA con quello WebFlux/R2DBC (profilo "reactive")
+ * sullo stesso catalogo sintetico. La cache applicativa è disattivata, così entrambe le varianti
+ * interrogano il database a ogni richiesta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(32)
+@Fork(1)
+public class StackComparisonBenchmark {
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String database = "bench-" + UUID.randomUUID();
+        context = BenchmarkCatalog.start(
+                "--spring.profiles.active=" + ("reactive".equals(stack) ? "reactive" : "default"),
+                "--spring.main.web-application-type=" + stack,
+                "--server.port=0",
+                "--spring.cache.type=none",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + "?options=DB_CLOSE_DELAY=-1");
+        BenchmarkCatalog.seed(context, catalogSize);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/books";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getById() throws IOException, InterruptedException {
+        return get("/" + (1 + ThreadLocalRandom.current().nextInt(catalogSize)));
+    }
+
+    @Benchmark
+    public int findByAuthor() throws IOException, InterruptedException {
+        return get("/by-author/" + BenchmarkCatalog.author(ThreadLocalRandom.current().nextInt(BenchmarkCatalog.AUTHORS)));
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int export() throws IOException, InterruptedException {
+        return get("/export");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path.replace(" ", "%20"))).GET().build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        // 404 è una risposta legittima: con cataloghi piccoli non tutti gli autori sintetici hanno libri
+        if (response.statusCode() != 200 && response.statusCode() != 404)
+            throw new IllegalStateException(path + " -> " + response.statusCode());
+        return response.body().length;
+    }
+}
@@ -0,0 +1,42 @@
+package com.giuseppe.biblioteca.service;
+
+import com.giuseppe.biblioteca.model.Book;
+import com.giuseppe.biblioteca.model.BookDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misura il costo delle conversioni entità/DTO eseguite da {@link BookServiceImpl} su ogni richiesta.
+ * Si trova nel package del servizio per accedere ai metodi di conversione package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookMappingBenchmark {
+
+    private final Book book = new Book(42L, "Il nome della rosa", "Umberto Eco", 1980, "Romanzo storico");
+
+    private final BookDTO bookDTO = new BookDTO(null, "Il nome della rosa", "Umberto Eco", 1980, "Romanzo storico");
+
+    @Benchmark
+    public BookDTO toDTO() {
+        return BookServiceImpl.toDTO(book);
+    }
+
+    @Benchmark
+    public Book toEntity() {
+        return BookServiceImpl.toEntity(bookDTO);
+    }
+}
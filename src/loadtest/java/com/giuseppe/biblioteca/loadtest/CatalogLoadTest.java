@@ -0,0 +1,461 @@
+package com.giuseppe.biblioteca.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuseppe.biblioteca.BibliotecaApplication;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Misura il throughput sostenibile da una singola istanza: avvia il servizio in un contesto Spring embedded,
+ * popola il catalogo con libri sintetici e chiama tutti gli endpoint di BookController secondo un mix
+ * configurabile di letture, scritture e ricerche. Per ogni endpoint riporta richieste al secondo
+ * e percentili di latenza raccolti con HdrHistogram.
+ *
+ * <p>I client lavorano a ciclo chiuso (una richiesta alla volta ciascuno) e ogni client usa un generatore
+ * con seme derivato da seed, così a parità di argomenti la sequenza di operazioni è la stessa.
+ * Le scritture lavorano sui libri del catalogo iniziale, tranne le eliminazioni, che consumano solo i libri
+ * creati durante il test per non svuotare il catalogo misurato.</p>
+ *
+ * <p>Argomenti (chiave=valore): mix=read-heavy clients=64 duration=60 warmup=10 catalog=100000 seed=42
+ * virtual=false cache=true hgrm=&lt;cartella&gt;. Il mix si può ritoccare con read=, write= e search=,
+ * pesi relativi che sostituiscono quelli del mix scelto.</p>
+ */
+public final class CatalogLoadTest {
+
+    private static final int AUTHORS = 1000;
+
+    private static final int GENRES = 20;
+
+    private static final int FIRST_YEAR = 1800;
+
+    private static final int YEARS = 225;
+
+    private static final int BULK_SIZE = 10;
+
+    /**
+     * Pesi di letture, scritture e ricerche dei mix predefiniti.
+     */
+    private static final Map<String, int[]> MIXES = Map.of(
+            "read-heavy", new int[]{80, 5, 15},
+            "balanced", new int[]{50, 20, 30},
+            "write-heavy", new int[]{20, 60, 20},
+            "search-heavy", new int[]{30, 5, 65});
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private CatalogLoadTest() {}
+
+    enum Kind {
+        READ, WRITE, SEARCH
+    }
+
+    /**
+     * Costruisce la richiesta di un'operazione a partire dallo stato condiviso e dal generatore del client.
+     */
+    @FunctionalInterface
+    interface RequestFactory {
+        HttpRequest create(Workload workload, Random random);
+    }
+
+    /**
+     * Un endpoint chiamato dal test.
+     *
+     * @param name     il nome riportato nel report
+     * @param kind     la categoria del mix a cui appartiene
+     * @param weight   il peso relativo all'interno della categoria
+     * @param creates  true se la risposta contiene libri creati, da rendere disponibili alle eliminazioni
+     * @param request  la fabbrica della richiesta
+     */
+    record Operation(
+            String name,
+            Kind kind,
+            int weight,
+            boolean creates,
+            RequestFactory request) {
+    }
+
+    record EndpointResult(
+            String name,
+            long requests,
+            long errors,
+            Histogram latencies) {
+    }
+
+    /**
+     * Stato condiviso tra i client: l'indirizzo del servizio, la dimensione del catalogo iniziale
+     * e gli ID dei libri creati durante il test e non ancora eliminati.
+     */
+    static final class Workload {
+
+        private final String baseUrl;
+
+        private final int catalog;
+
+        private final ConcurrentLinkedQueue<Long> created = new ConcurrentLinkedQueue<>();
+
+        Workload(String baseUrl, int catalog) {
+            this.baseUrl = baseUrl;
+            this.catalog = catalog;
+        }
+
+        long seededId(Random random) {
+            return 1 + random.nextInt(catalog);
+        }
+
+        HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60));
+        }
+
+        HttpRequest get(String path) {
+            return request(path).GET().build();
+        }
+
+        HttpRequest send(String method, String path, String contentType, String body) {
+            return request(path).header("Content-Type", contentType)
+                    .method(method, HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+    }
+
+    private static final List<Operation> OPERATIONS = List.of(
+            new Operation("GET /{id}", Kind.READ, 40, false,
+                    (w, r) -> w.get("/" + w.seededId(r))),
+            new Operation("GET / (page)", Kind.READ, 10, false,
+                    (w, r) -> w.get("?size=20")),
+            new Operation("GET /by-author", Kind.READ, 15, false,
+                    (w, r) -> w.get("/by-author/" + encode(author(r)))),
+            new Operation("GET /by-genre", Kind.READ, 4, false,
+                    (w, r) -> w.get("/by-genre/" + encode(genre(r)))),
+            new Operation("GET /before", Kind.READ, 4, false,
+                    (w, r) -> w.get("/before/" + (FIRST_YEAR + 1 + r.nextInt(5)))),
+            new Operation("GET /count/author", Kind.READ, 15, false,
+                    (w, r) -> w.get("/count/author/" + encode(author(r)))),
+            new Operation("GET /facets", Kind.READ, 10, false,
+                    (w, r) -> w.get("/facets?genre=" + encode(genre(r)))),
+            new Operation("GET /sorted", Kind.READ, 1, false,
+                    (w, r) -> w.get("/sorted")),
+            new Operation("GET /export", Kind.READ, 1, false,
+                    (w, r) -> w.get("/export")),
+            new Operation("GET /search/title", Kind.SEARCH, 70, false,
+                    (w, r) -> w.get("/search/title?title=" + encode("olo " + r.nextInt(w.catalog)))),
+            new Operation("GET /search/title-or-author", Kind.SEARCH, 30, false,
+                    (w, r) -> w.get("/search/title-or-author?title=" + encode("Titolo " + w.seededId(r))
+                            + "&author=" + encode(author(r)))),
+            new Operation("POST /", Kind.WRITE, 30, true,
+                    (w, r) -> w.send("POST", "", "application/json", json(book(null, r)))),
+            new Operation("POST /bulk (json)", Kind.WRITE, 4, false,
+                    (w, r) -> w.send("POST", "/bulk", "application/json", json(books(r)))),
+            new Operation("POST /bulk (ndjson)", Kind.WRITE, 4, false,
+                    (w, r) -> w.send("POST", "/bulk", "application/x-ndjson", ndjson(books(r)))),
+            new Operation("PUT /{id}", Kind.WRITE, 25, false,
+                    (w, r) -> {
+                        long id = w.seededId(r);
+                        return w.send("PUT", "/" + id, "application/json", json(book(id, r)));
+                    }),
+            new Operation("PATCH /{id}", Kind.WRITE, 25, false,
+                    (w, r) -> w.send("PATCH", "/" + w.seededId(r), "application/json",
+                            "{\"year\":" + year(r) + "}")),
+            new Operation("DELETE /{id}", Kind.WRITE, 10, false,
+                    (w, r) -> {
+                        Long id = w.created.poll();
+                        // Senza libri creati da eliminare l'operazione diventa una DELETE di un ID inesistente.
+                        return w.request("/" + (id != null ? id : -1)).DELETE().build();
+                    }),
+            new Operation("DELETE /?ids", Kind.WRITE, 2, false,
+                    (w, r) -> {
+                        StringJoiner ids = new StringJoiner(",");
+                        for (int i = 0; i < BULK_SIZE; i++) {
+                            Long id = w.created.poll();
+                            if (id == null)
+                                break;
+                            ids.add(String.valueOf(id));
+                        }
+                        return w.request("?ids=" + (ids.length() > 0 ? ids : "-1")).DELETE().build();
+                    }));
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String mixName = options.getOrDefault("mix", "read-heavy");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int catalog = Integer.parseInt(options.getOrDefault("catalog", "100000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        boolean virtual = Boolean.parseBoolean(options.getOrDefault("virtual", "false"));
+        boolean cache = Boolean.parseBoolean(options.getOrDefault("cache", "true"));
+        String hgrm = options.get("hgrm");
+
+        int[] mix = MIXES.get(mixName);
+        if (mix == null)
+            throw new IllegalArgumentException("Mix sconosciuto: " + mixName + ", disponibili: " + MIXES.keySet());
+        mix = new int[]{
+                Integer.parseInt(options.getOrDefault("read", String.valueOf(mix[0]))),
+                Integer.parseInt(options.getOrDefault("write", String.valueOf(mix[1]))),
+                Integer.parseInt(options.getOrDefault("search", String.valueOf(mix[2])))};
+        int[] cumulative = cumulativeWeights(mix);
+
+        SpringApplication application = new SpringApplication(BibliotecaApplication.class);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", "jdbc:h2:mem:load-" + UUID.randomUUID());
+        properties.put("spring.threads.virtual.enabled", String.valueOf(virtual));
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "warn");
+        if (!cache)
+            properties.put("spring.cache.type", "none");
+        application.setDefaultProperties(properties);
+
+        try (ConfigurableApplicationContext context = application.run()) {
+            long seedStart = System.nanoTime();
+            context.getBean(IBookService.class).createBooks(books(catalog, new Random(seed)));
+            System.out.printf("Catalogo di %d libri sintetici caricato in %d ms%n",
+                    catalog, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/books";
+            Workload workload = new Workload(baseUrl, catalog);
+            System.out.printf("Mix %s (letture %d, scritture %d, ricerche %d), %d client per %d s (+%d s di warmup), seed %d%n",
+                    mixName, mix[0], mix[1], mix[2], clients, duration, warmup, seed);
+
+            List<EndpointResult> results = drive(workload, cumulative, clients, duration, warmup, seed);
+            report(results, duration);
+            if (hgrm != null)
+                writeDistributions(results, Path.of(hgrm));
+        }
+    }
+
+    private static List<EndpointResult> drive(Workload workload, int[] cumulative, int clients, int duration,
+                                              int warmup, long seed) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+        int operations = OPERATIONS.size();
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        List<Future<EndpointResult[]>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(seed * 31 + c);
+            futures.add(workers.submit(() -> {
+                Histogram[] latencies = new Histogram[operations];
+                long[] errors = new long[operations];
+                for (int i = 0; i < operations; i++)
+                    latencies[i] = new Histogram(3);
+
+                while (System.nanoTime() < deadline) {
+                    int index = pick(cumulative, random);
+                    Operation operation = OPERATIONS.get(index);
+                    HttpRequest request = operation.request().create(workload, random);
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        if (operation.creates()) {
+                            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                            ok = response.statusCode() < 500;
+                            if (response.statusCode() == 200)
+                                workload.created.add(JSON.readTree(response.body()).path("id").asLong());
+                        } else {
+                            ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+                        }
+                    } catch (IOException ioex) {
+                        ok = false;
+                    }
+                    long end = System.nanoTime();
+                    if (start < measureFrom)
+                        continue;
+                    if (!ok)
+                        errors[index]++;
+                    latencies[index].recordValue(TimeUnit.NANOSECONDS.toMicros(end - start));
+                }
+
+                EndpointResult[] perOperation = new EndpointResult[operations];
+                for (int i = 0; i < operations; i++)
+                    perOperation[i] = new EndpointResult(OPERATIONS.get(i).name(),
+                            latencies[i].getTotalCount(), errors[i], latencies[i]);
+                return perOperation;
+            }));
+        }
+
+        Histogram[] merged = new Histogram[operations];
+        long[] errors = new long[operations];
+        for (int i = 0; i < operations; i++)
+            merged[i] = new Histogram(3);
+        for (Future<EndpointResult[]> future : futures) {
+            EndpointResult[] perOperation = future.get();
+            for (int i = 0; i < operations; i++) {
+                merged[i].add(perOperation[i].latencies());
+                errors[i] += perOperation[i].errors();
+            }
+        }
+        workers.shutdown();
+
+        List<EndpointResult> results = new ArrayList<>();
+        for (int i = 0; i < operations; i++)
+            results.add(new EndpointResult(OPERATIONS.get(i).name(), merged[i].getTotalCount(), errors[i], merged[i]));
+        return results;
+    }
+
+    /**
+     * Trasforma i pesi delle categorie nei pesi cumulativi dei singoli endpoint:
+     * il peso di un endpoint è la sua quota all'interno della categoria moltiplicata per il peso della categoria.
+     */
+    private static int[] cumulativeWeights(int[] mix) {
+        Map<Kind, Integer> categoryTotals = new LinkedHashMap<>();
+        for (Operation operation : OPERATIONS)
+            categoryTotals.merge(operation.kind(), operation.weight(), Integer::sum);
+
+        int[] cumulative = new int[OPERATIONS.size()];
+        int total = 0;
+        for (int i = 0; i < OPERATIONS.size(); i++) {
+            Operation operation = OPERATIONS.get(i);
+            total += mix[operation.kind().ordinal()] * operation.weight() * 1000 / categoryTotals.get(operation.kind());
+            cumulative[i] = total;
+        }
+        if (total == 0)
+            throw new IllegalArgumentException("Il mix deve avere almeno un peso positivo");
+        return cumulative;
+    }
+
+    private static int pick(int[] cumulative, Random random) {
+        int value = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++)
+            if (value < cumulative[i])
+                return i;
+        return cumulative.length - 1;
+    }
+
+    private static void report(List<EndpointResult> results, int duration) {
+        System.out.printf("%n%-28s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long errors = 0;
+        for (EndpointResult result : results) {
+            if (result.requests() == 0)
+                continue;
+            printRow(result.name(), result.requests(), result.errors(), result.latencies(), duration);
+            total.add(result.latencies());
+            errors += result.errors();
+        }
+        printRow("TOTALE", total.getTotalCount(), errors, total, duration);
+    }
+
+    private static void printRow(String name, long requests, long errors, Histogram latencies, int duration) {
+        System.out.printf(Locale.ROOT, "%-28s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, requests, errors, requests / (double) duration,
+                millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    /**
+     * Scrive la distribuzione completa di ogni endpoint in formato .hgrm, in millisecondi,
+     * leggibile con HdrHistogram Plotter per confrontare esecuzioni diverse.
+     */
+    private static void writeDistributions(List<EndpointResult> results, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (EndpointResult result : results) {
+            if (result.requests() == 0)
+                continue;
+            String file = result.name().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(file)), false,
+                    StandardCharsets.UTF_8)) {
+                result.latencies().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.println("\nDistribuzioni di latenza scritte in " + directory.toAbsolutePath());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String author(Random random) {
+        return "Autore " + random.nextInt(AUTHORS);
+    }
+
+    private static String genre(Random random) {
+        return "Genere " + random.nextInt(GENRES);
+    }
+
+    private static int year(Random random) {
+        return FIRST_YEAR + random.nextInt(YEARS);
+    }
+
+    private static BookDTO book(Long id, Random random) {
+        String title = "Titolo " + (id != null ? id : "nuovo " + random.nextInt(1_000_000));
+        return new BookDTO(null, title, author(random), year(random), genre(random));
+    }
+
+    private static List<BookDTO> books(Random random) {
+        List<BookDTO> books = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++)
+            books.add(book(null, random));
+        return books;
+    }
+
+    private static Iterator<BookDTO> books(int size, Random random) {
+        return IntStream.range(0, size)
+                .mapToObj(i -> new BookDTO(null, "Titolo " + (i + 1), author(random), year(random), genre(random)))
+                .iterator();
+    }
+
+    private static String json(Object value) {
+        try {
+            return JSON.writeValueAsString(value);
+        } catch (IOException ioex) {
+            throw new IllegalStateException(ioex);
+        }
+    }
+
+    private static String ndjson(List<BookDTO> books) {
+        StringBuilder body = new StringBuilder();
+        for (BookDTO book : books)
+            body.append(json(book)).append('\n');
+        return body.toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0)
+                options.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,217 @@
+package com.giuseppe.biblioteca.loadtest;
+
+import com.giuseppe.biblioteca.BibliotecaApplication;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.service.IBookService;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Confronta throughput e latenza di coda del servizio eseguito sul pool di platform thread di Tomcat
+ * e su virtual thread, con migliaia di client concorrenti che chiamano gli endpoint di lettura.
+ * Durante l'esecuzione su virtual thread registra con JFR gli eventi jdk.VirtualThreadPinned
+ * per individuare i punti del percorso JDBC che bloccano il carrier thread.
+ * La cache dei libri è disattivata, così ogni richiesta arriva davvero al database.
+ *
+ * <p>Argomenti (chiave=valore): clients=1000 duration=30 warmup=5 catalog=10000</p>
+ */
+public final class VirtualThreadLoadTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int AUTHORS = 1000;
+
+    private static final int TOP_PINNED_FRAMES = 10;
+
+    private VirtualThreadLoadTest() {}
+
+    record Result(
+            String mode,
+            boolean virtualActive,
+            long requests,
+            long errors,
+            double throughput,
+            double p50Millis,
+            double p99Millis,
+            double p999Millis,
+            double maxMillis,
+            long pinnedEvents,
+            Map<String, Long> pinnedFrames) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        int duration = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int catalog = Integer.parseInt(options.getOrDefault("catalog", "10000"));
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true})
+            results.add(run(virtual, clients, duration, warmup, catalog));
+
+        System.out.printf("%n%-10s %8s %10s %8s %12s %10s %10s %10s %10s %8s%n",
+                "mode", "virtual", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "pinned");
+        for (Result result : results) {
+            System.out.printf("%-10s %8s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f %8d%n",
+                    result.mode(), result.virtualActive(), result.requests(), result.errors(), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), result.p999Millis(), result.maxMillis(),
+                    result.pinnedEvents());
+        }
+        for (Result result : results) {
+            if (!result.pinnedFrames().isEmpty()) {
+                System.out.printf("%nFrame più frequenti negli eventi di pinning (%s):%n", result.mode());
+                result.pinnedFrames().entrySet().stream()
+                        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                        .limit(TOP_PINNED_FRAMES)
+                        .forEach(entry -> System.out.printf("%8d  %s%n", entry.getValue(), entry.getKey()));
+            }
+        }
+    }
+
+    private static Result run(boolean virtual, int clients, int duration, int warmup, int catalog) throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        SpringApplication application = new SpringApplication(BibliotecaApplication.class);
+        application.setDefaultProperties(Map.of(
+                "server.port", "0",
+                "spring.datasource.url", "jdbc:h2:mem:load-" + UUID.randomUUID(),
+                "spring.threads.virtual.enabled", String.valueOf(virtual),
+                "spring.cache.type", "none",
+                "spring.main.banner-mode", "off",
+                "logging.level.root", "warn"));
+
+        LongAdder pinnedEvents = new LongAdder();
+        Map<String, Long> pinnedFrames = new ConcurrentHashMap<>();
+        try (ConfigurableApplicationContext context = application.run();
+             RecordingStream recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT).withStackTrace().withThreshold(Duration.ZERO);
+            recording.onEvent(PINNED_EVENT, event -> {
+                pinnedEvents.increment();
+                if (event.getStackTrace() != null) {
+                    // Il primo frame applicativo o di libreria indica chi tiene il monitor.
+                    event.getStackTrace().getFrames().stream()
+                            .map(RecordedFrame::getMethod)
+                            .map(method -> method.getType().getName() + "." + method.getName())
+                            .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk."))
+                            .findFirst()
+                            .ifPresent(frame -> pinnedFrames.merge(frame, 1L, Long::sum));
+                }
+            });
+            recording.startAsync();
+
+            context.getBean(IBookService.class).createBooks(books(catalog));
+            boolean virtualActive = Threading.VIRTUAL.isActive(context.getEnvironment());
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/books/";
+
+            System.out.printf("[%s] %d client per %d s (+%d s di warmup), catalogo di %d libri%n",
+                    mode, clients, duration, warmup, catalog);
+            return drive(mode, virtualActive, baseUrl, clients, duration, warmup, catalog, pinnedEvents, pinnedFrames);
+        }
+    }
+
+    private static Result drive(String mode, boolean virtualActive, String baseUrl, int clients, int duration,
+                                int warmup, int catalog, LongAdder pinnedEvents, Map<String, Long> pinnedFrames)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(duration);
+        LongAdder errors = new LongAdder();
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(workers.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    // 80% letture per ID, 20% ricerche per autore.
+                    String path = random.nextInt(10) < 8
+                            ? String.valueOf(1 + random.nextInt(catalog))
+                            : "by-author/Autore%20" + random.nextInt(AUTHORS);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+                    } catch (Exception ex) {
+                        ok = false;
+                    }
+                    long end = System.nanoTime();
+                    if (start < measureFrom)
+                        continue;
+                    if (!ok)
+                        errors.increment();
+                    if (count == latencies.length)
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    latencies[count++] = end - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        List<long[]> perClient = new ArrayList<>();
+        for (Future<long[]> future : futures)
+            perClient.add(future.get());
+        workers.shutdown();
+
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(mode, virtualActive, all.length, errors.sum(), all.length / (double) duration,
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                all.length == 0 ? 0 : all[all.length - 1] / 1e6,
+                pinnedEvents.sum(), new HashMap<>(pinnedFrames));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0)
+            return 0;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static Iterator<BookDTO> books(int size) {
+        Random random = new Random(42L);
+        return IntStream.range(0, size)
+                .mapToObj(i -> new BookDTO(null, "Titolo " + i, "Autore " + random.nextInt(AUTHORS),
+                        1800 + random.nextInt(225), "Genere " + random.nextInt(20)))
+                .iterator();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator > 0)
+                options.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
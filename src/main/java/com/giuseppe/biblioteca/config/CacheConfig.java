@@ -0,0 +1,23 @@
+package com.giuseppe.biblioteca.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Abilita la cache applicativa.
+ * Dimensione massima, TTL e raccolta delle statistiche sono configurati in application.properties.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Nome della cache dei libri letti per ID, insieme al token di versione usato per le ETag.
+     */
+    public static final String BOOKS_CACHE = "books";
+
+    /**
+     * Nome della cache dei conteggi per faccetta, svuotata a ogni modifica del catalogo.
+     */
+    public static final String FACETS_CACHE = "facets";
+}
@@ -0,0 +1,12 @@
+package com.giuseppe.biblioteca.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Abilita i job periodici, come la riconciliazione delle strutture in memoria con il database.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
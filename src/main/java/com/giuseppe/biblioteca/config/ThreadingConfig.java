@@ -0,0 +1,44 @@
+package com.giuseppe.biblioteca.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Segnala all'avvio con quale modello di thread vengono servite le richieste.
+ * Con spring.threads.virtual.enabled=true Tomcat, l'esecutore asincrono (export in streaming)
+ * e lo scheduler usano virtual thread, per cui anche le chiamate al servizio e a JDBC vi girano sopra.
+ */
+@Component
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    private final Environment environment;
+
+    /**
+     * Inietta l'ambiente da cui leggere la configurazione.
+     *
+     * @param environment l'ambiente Spring
+     */
+    public ThreadingConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Registra nel log la modalità di esecuzione effettiva.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void logThreadingMode() {
+        if (environment.matchesProfiles("reactive"))
+            log.info("Richieste servite dall'event loop di Reactor Netty");
+        else if (Threading.VIRTUAL.isActive(environment))
+            log.info("Richieste servite su virtual thread");
+        else
+            log.info("Richieste servite dal pool di platform thread di Tomcat");
+    }
+}
@@ -0,0 +1,81 @@
+package com.giuseppe.biblioteca.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Risposte di errore preallocate per i casi più frequenti.
+ * Una ResponseEntity ha intestazioni in sola lettura ed è immutabile, quindi la stessa istanza
+ * può essere restituita da richieste concorrenti senza costruire nulla sul percorso di errore.
+ */
+final class ApiErrors {
+
+    static final ResponseEntity<String> NOT_FOUND = ResponseEntity.notFound().build();
+
+    static final ResponseEntity<String> ID_NOT_ALLOWED =
+            badRequest("Non includere campo id, ci pensa il database");
+
+    static final ResponseEntity<String> EMPTY_PATCH =
+            badRequest("Specificare almeno un campo da aggiornare.");
+
+    static final ResponseEntity<String> IDS_AND_FILTERS =
+            badRequest("Specificare gli ID oppure i filtri, non entrambi.");
+
+    static final ResponseEntity<String> NO_FILTER =
+            badRequest("Specificare almeno un filtro per l'eliminazione.");
+
+    static final ResponseEntity<String> NUMERIC_AUTHOR =
+            badRequest("Il parametro per autore non può essere composto solo da numeri.");
+
+    static final ResponseEntity<String> NUMERIC_GENRE =
+            badRequest("Il parametro per genere non può essere composto solo da numeri.");
+
+    static final ResponseEntity<String> INVALID_YEAR =
+            badRequest("L'anno deve essere un numero valido.");
+
+    static final ResponseEntity<String> INVALID_YEAR_RANGE =
+            badRequest("L'anno iniziale non può essere successivo a quello finale.");
+
+    static final ResponseEntity<String> NO_BOOKS_BY_AUTHOR =
+            notFound("Nessun libro trovato per l'autore indicato.");
+
+    static final ResponseEntity<String> NO_BOOKS_BY_GENRE =
+            notFound("Non sono presenti libri del genere indicato.");
+
+    static final ResponseEntity<String> NO_BOOKS_BY_TITLE =
+            notFound("Non sono presenti libri con il titolo indicato.");
+
+    static final ResponseEntity<String> NO_BOOKS_BEFORE_YEAR =
+            notFound("Non sono presenti libri pubblicati prima dell'anno indicato.");
+
+    static final ResponseEntity<String> NO_BOOKS_IN_YEAR_RANGE =
+            notFound("Non sono presenti libri pubblicati negli anni indicati.");
+
+    static final ResponseEntity<String> NO_BOOKS_BY_TITLE_OR_AUTHOR =
+            notFound("Non sono presenti libri con il titolo o l'autore indicati.");
+
+    static final ResponseEntity<String> NO_SORTABLE_BOOKS =
+            notFound("Non sono presenti libri ordinabili.");
+
+    static final ResponseEntity<String> PRECONDITION_FAILED =
+            ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body("Il libro è stato modificato da un'altra richiesta: rileggerlo e riprovare.");
+
+    static final ResponseEntity<String> CONFLICT =
+            ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Il libro è stato modificato da un'altra richiesta: rileggerlo e riprovare.");
+
+    static final ResponseEntity<String> INTERNAL_ERROR =
+            ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+
+    private ApiErrors() {}
+
+    private static ResponseEntity<String> badRequest(String message) {
+        return ResponseEntity.badRequest().body(message);
+    }
+
+    private static ResponseEntity<String> notFound(String message) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
+    }
+}
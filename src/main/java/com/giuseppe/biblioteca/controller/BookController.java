@@ -1,56 +1,116 @@
 package com.giuseppe.biblioteca.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookFacets;
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.model.BookPatchDTO;
+import com.giuseppe.biblioteca.model.BookSlice;
+import com.giuseppe.biblioteca.model.BulkDeleteReport;
+import com.giuseppe.biblioteca.model.SliceRequest;
+import com.giuseppe.biblioteca.model.VersionedBook;
 import com.giuseppe.biblioteca.service.IBookService;
-import org.springframework.http.HttpStatus;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Optional;
 
 /**
  * Controller per la gestione dei libri in biblioteca.
  * Espone endpoint per operazioni CRUD, ricerche e ordinamenti.
+ * Con il profilo "reactive" viene sostituito da ReactiveBookController.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/books")
 public class BookController {
 
+    /**
+     * Dimensione predefinita delle pagine delle ricerche, quando la paginazione è richiesta senza size.
+     */
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
     private IBookService bookService;
 
+    private ObjectMapper objectMapper;
+
     /**
      * Inietta il servizio per la gestione dei libri.
      *
-     * @param bookService il servizio da utilizzare
+     * @param bookService  il servizio da utilizzare
+     * @param objectMapper il mapper JSON usato per leggere gli inserimenti in NDJSON
      */
-    public BookController(IBookService bookService) {
+    public BookController(IBookService bookService, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Recupera tutti i libri presenti.
+     * Recupera i libri presenti, una pagina alla volta tramite cursore.
+     * L'elenco completo non paginato è disponibile solo richiedendolo esplicitamente con unpaged=true.
      *
-     * @return una lista di BookDTO contenenti tutti i libri
+     * @param cursor  il cursore restituito dalla pagina precedente, assente per la prima pagina
+     * @param size    il numero di libri per pagina, limitato lato server
+     * @param unpaged true per ottenere tutti i libri in un'unica risposta
+     * @param request la richiesta, usata per rispondere 304 se l'ETag del catalogo non è cambiata
+     * @return la pagina di libri, l'elenco completo oppure un messaggio di errore in caso di input non valido
      */
     @GetMapping
-    public List<BookDTO> getAll() {
-        return bookService.getAllBooks();
+    public ResponseEntity<?> getAll(@RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "20") int size,
+                                    @RequestParam(defaultValue = "false") boolean unpaged,
+                                    WebRequest request) {
+        String etag = etag(bookService.getCatalogVersion());
+        if (request.checkNotModified(etag))
+            return null;
+
+        if (unpaged)
+            return ResponseEntity.ok().eTag(etag).body(bookService.getAllBooks());
+
+        BookPage page = bookService.getBooksPage(cursor, size);
+        return ResponseEntity.ok().eTag(etag).body(page);
+    }
+
+    /**
+     * Esporta l'intero catalogo in formato NDJSON, scrivendo i libri man mano che vengono letti.
+     *
+     * @return lo stream NDJSON con un libro per riga
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(bookService::exportBooks);
     }
 
     /**
      * Recupera un libro dato il suo ID.
+     * L'ETag restituita va reinviata in If-None-Match per le letture condizionali (304)
+     * e in If-Match per le modifiche condizionali.
      *
-     * @param id l'ID del libro
+     * @param id      l'ID del libro
+     * @param request la richiesta, usata per la validazione condizionale
      * @return il libro richiesto oppure un messaggio di errore se non trovato
      */
     @GetMapping("/{id}")
-    public ResponseEntity<BookDTO> getById(@PathVariable Long id) {
-        try {
-            return ResponseEntity.ok(bookService.getBookById(id));
-        } catch (NoSuchElementException nseex) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<?> getById(@PathVariable Long id, WebRequest request) {
+        Optional<VersionedBook> book = bookService.getVersionedBook(id);
+        if (book.isEmpty())
+            return ApiErrors.NOT_FOUND;
+
+        String etag = etag(book.get().version());
+        if (request.checkNotModified(etag))
+            return null;
+
+        return ResponseEntity.ok().eTag(etag).body(book.get().book());
     }
 
     /**
@@ -62,41 +122,137 @@ public class BookController {
     @PostMapping
     public ResponseEntity<?> create(@RequestBody BookDTO book) {
         if (book.id() != null)
-            return ResponseEntity.badRequest().body("Non includere campo id, ci pensa il database");
+            return ApiErrors.ID_NOT_ALLOWED;
 
         return ResponseEntity.ok(bookService.createBook(book));
     }
 
+    /**
+     * Crea più libri in un'unica richiesta, inserendoli a blocchi con batch JDBC.
+     *
+     * @param books i BookDTO da creare; il campo id deve essere null per tutti
+     * @return il report dell'inserimento oppure un messaggio di errore in caso di input non valido
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createBulk(@RequestBody List<BookDTO> books) {
+        if (books.stream().anyMatch(book -> book.id() != null))
+            return ApiErrors.ID_NOT_ALLOWED;
+
+        return ResponseEntity.ok(bookService.createBooks(books.iterator()));
+    }
+
+    /**
+     * Crea più libri letti in streaming da un corpo NDJSON (un BookDTO per riga).
+     * I blocchi completati prima di un eventuale errore restano salvati.
+     *
+     * @param body il corpo della richiesta in formato NDJSON
+     * @return il report dell'inserimento oppure un messaggio di errore in caso di input non valido
+     * @throws IOException se la lettura del corpo fallisce
+     */
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<?> createBulkNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(bookService.createBooks(
+                objectMapper.readerFor(BookDTO.class).readValues(body)));
+    }
+
     /**
      * Aggiorna un libro esistente.
+     * Con If-Match l'aggiornamento avviene solo se il libro è ancora alla versione indicata.
      *
-     * @param id   l'ID del libro da aggiornare
-     * @param book il BookDTO con i nuovi dati
-     * @return il libro aggiornato oppure un messaggio di errore se il libro non esiste
+     * @param id      l'ID del libro da aggiornare
+     * @param book    il BookDTO con i nuovi dati
+     * @param ifMatch l'ETag letta in precedenza (opzionale)
+     * @return il libro aggiornato oppure un messaggio di errore se il libro non esiste o è stato modificato
      */
     @PutMapping("{id}")
-    public ResponseEntity<BookDTO> update(@PathVariable Long id, @RequestBody BookDTO book) {
-        try {
-            return ResponseEntity.ok(bookService.updateBook(id, book));
-        } catch (NoSuchElementException nseex) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<?> update(@PathVariable Long id, @RequestBody BookDTO book,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<BookDTO> updated = bookService.updateBook(id, book, expectedVersion(ifMatch));
+        return updated.isPresent() ? ResponseEntity.ok(updated.get()) : ApiErrors.NOT_FOUND;
+    }
+
+    /**
+     * Aggiorna solo i campi forniti di un libro esistente.
+     *
+     * Con If-Match l'aggiornamento avviene solo se il libro è ancora alla versione indicata.
+     *
+     * @param id      l'ID del libro da aggiornare
+     * @param patch   i campi da modificare; quelli assenti restano invariati
+     * @param ifMatch l'ETag letta in precedenza (opzionale)
+     * @return il libro aggiornato oppure un messaggio di errore se il libro non esiste, è stato modificato
+     * o non ci sono campi
+     */
+    @PatchMapping("{id}")
+    public ResponseEntity<?> patch(@PathVariable Long id, @RequestBody BookPatchDTO patch,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (patch.isEmpty()) {
+            return ApiErrors.EMPTY_PATCH;
         }
+        Optional<BookDTO> patched = bookService.patchBook(id, patch, expectedVersion(ifMatch));
+        return patched.isPresent() ? ResponseEntity.ok(patched.get()) : ApiErrors.NOT_FOUND;
     }
 
     /**
      * Elimina un libro dato il suo ID.
      *
-     * @param id l'ID del libro da eliminare
-     * @return un messaggio che conferma l'eliminazione o un errore se il libro non esiste
+     * Con If-Match l'eliminazione avviene solo se il libro è ancora alla versione indicata.
+     *
+     * @param id      l'ID del libro da eliminare
+     * @param ifMatch l'ETag letta in precedenza (opzionale)
+     * @return un messaggio che conferma l'eliminazione o un errore se il libro non esiste o è stato modificato
      */
     @DeleteMapping("{id}")
-    public ResponseEntity<String> delete(@PathVariable Long id) {
-        boolean deleted = bookService.deleteBook(id);
-        if (deleted) {
+    public ResponseEntity<String> delete(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (bookService.deleteBook(id, expectedVersion(ifMatch))) {
             return ResponseEntity.ok("Libro con id =" + id + " eliminato con successo.");
         } else {
-            return ResponseEntity.notFound().build();
+            return ApiErrors.NOT_FOUND;
+        }
+    }
+
+    /**
+     * Elimina con un'unica istruzione i libri indicati per ID oppure quelli che rispettano i filtri.
+     * Gli ID e i filtri sono alternativi e almeno uno deve essere specificato; i filtri si combinano in AND.
+     *
+     * @param ids    gli ID dei libri da eliminare
+     * @param author l'autore dei libri da eliminare
+     * @param genre  il genere dei libri da eliminare
+     * @param from   l'anno minimo di pubblicazione, incluso
+     * @param to     l'anno massimo di pubblicazione, incluso
+     * @return il numero di libri eliminati oppure un messaggio di errore in caso di input non valido
+     */
+    @DeleteMapping
+    public ResponseEntity<?> deleteMany(@RequestParam(required = false) List<Long> ids,
+                                        @RequestParam(required = false) String author,
+                                        @RequestParam(required = false) String genre,
+                                        @RequestParam(required = false) String from,
+                                        @RequestParam(required = false) String to) {
+        boolean filtered = author != null || genre != null || from != null || to != null;
+        if (ids != null && filtered) {
+            return ApiErrors.IDS_AND_FILTERS;
+        }
+        if (ids != null) {
+            return ResponseEntity.ok(new BulkDeleteReport(bookService.deleteBooks(ids)));
         }
+        if (!filtered) {
+            return ApiErrors.NO_FILTER;
+        }
+        if (author != null && author.matches("\\d+")) {
+            return ApiErrors.NUMERIC_AUTHOR;
+        }
+        if (genre != null && genre.matches("\\d+")) {
+            return ApiErrors.NUMERIC_GENRE;
+        }
+        if ((from != null && !from.matches("\\d+")) || (to != null && !to.matches("\\d+"))) {
+            return ApiErrors.INVALID_YEAR;
+        }
+        Integer fromYear = from == null ? null : Integer.valueOf(from);
+        Integer toYear = to == null ? null : Integer.valueOf(to);
+        if (fromYear != null && toYear != null && fromYear > toYear) {
+            return ApiErrors.INVALID_YEAR_RANGE;
+        }
+        return ResponseEntity.ok(new BulkDeleteReport(bookService.deleteBooksMatching(author, genre, fromYear, toYear)));
     }
 
     /**
@@ -104,98 +260,126 @@ public class BookController {
      * Verifica che il parametro non sia composto solo da numeri.
      *
      * @param author il nome dell'autore da cercare
+     * @param page   il numero di pagina, a partire da 0 (opzionale)
+     * @param size   il numero di libri per pagina, limitato lato server (opzionale)
+     * @param sort   i campi di ordinamento, con prefisso "-" per l'ordine discendente (opzionale)
+     * @param count  true per includere i totali nella pagina
      * @return una lista di libri oppure un messaggio di errore se non trovati o input non valido
      */
     @GetMapping("/by-author/{author}")
-    public ResponseEntity<?> getBooksByAuthor(@PathVariable String author) {
+    public ResponseEntity<?> getBooksByAuthor(@PathVariable String author,
+                                              @RequestParam(required = false) Integer page,
+                                              @RequestParam(required = false) Integer size,
+                                              @RequestParam(required = false) List<String> sort,
+                                              @RequestParam(defaultValue = "false") boolean count) {
         if (author.matches("\\d+")) {
-            return ResponseEntity.badRequest()
-                    .body("Il parametro per autore non può essere composto solo da numeri.");
-        }
-        try {
-            List<BookDTO> books = bookService.findBooksByAuthor(author);
-            if (books.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Nessun libro trovato per l'autore: " + author);
-            }
-            return ResponseEntity.ok(books);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+            return ApiErrors.NUMERIC_AUTHOR;
+        }
+        if (!bookService.mayHaveBooksByAuthor(author)) {
+            return ApiErrors.NO_BOOKS_BY_AUTHOR;
+        }
+        SliceRequest slice = sliceRequest(page, size, sort, count);
+        if (slice != null) {
+            return sliced(bookService.findBooksByAuthor(author, slice), ApiErrors.NO_BOOKS_BY_AUTHOR);
         }
+        List<BookDTO> books = bookService.findBooksByAuthor(author);
+        if (books.isEmpty()) {
+            return ApiErrors.NO_BOOKS_BY_AUTHOR;
+        }
+        return ResponseEntity.ok(books);
     }
 
     /**
      * Recupera i libri in base al genere.
      * Verifica che il parametro non sia composto solo da numeri.
      *
-     * @param genre il genere da cercare
+     * @param genre  il genere da cercare
+     * @param page   il numero di pagina, a partire da 0 (opzionale)
+     * @param size   il numero di libri per pagina, limitato lato server (opzionale)
+     * @param sort   i campi di ordinamento, con prefisso "-" per l'ordine discendente (opzionale)
+     * @param count  true per includere i totali nella pagina
      * @return una lista di libri oppure un messaggio di errore se non trovati o input non valido
      */
     @GetMapping("/by-genre/{genre}")
-    public ResponseEntity<?> getBooksByGenre(@PathVariable String genre) {
+    public ResponseEntity<?> getBooksByGenre(@PathVariable String genre,
+                                             @RequestParam(required = false) Integer page,
+                                             @RequestParam(required = false) Integer size,
+                                             @RequestParam(required = false) List<String> sort,
+                                             @RequestParam(defaultValue = "false") boolean count) {
         if (genre.matches("\\d+")) {
-            return ResponseEntity.badRequest()
-                    .body("Il parametro per genere non può essere composto solo da numeri.");
-        }
-        try {
-            List<BookDTO> books = bookService.findBooksByGenre(genre);
-            if (books.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Non sono presenti libri del genere: " + genre);
-            }
-            return ResponseEntity.ok(books);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+            return ApiErrors.NUMERIC_GENRE;
+        }
+        if (!bookService.mayHaveBooksByGenre(genre)) {
+            return ApiErrors.NO_BOOKS_BY_GENRE;
+        }
+        SliceRequest slice = sliceRequest(page, size, sort, count);
+        if (slice != null) {
+            return sliced(bookService.findBooksByGenre(genre, slice), ApiErrors.NO_BOOKS_BY_GENRE);
         }
+        List<BookDTO> books = bookService.findBooksByGenre(genre);
+        if (books.isEmpty()) {
+            return ApiErrors.NO_BOOKS_BY_GENRE;
+        }
+        return ResponseEntity.ok(books);
     }
 
     /**
      * Cerca libri che contengono una determinata stringa nel titolo.
      *
-     * @param title la stringa da ricercare nel titolo
+     * @param title  la stringa da ricercare nel titolo
+     * @param page   il numero di pagina, a partire da 0 (opzionale)
+     * @param size   il numero di libri per pagina, limitato lato server (opzionale)
+     * @param sort   i campi di ordinamento, con prefisso "-" per l'ordine discendente (opzionale)
+     * @param count  true per includere i totali nella pagina
      * @return una lista di libri oppure un messaggio di errore se nessun libro è trovato
      */
     @GetMapping("/search/title")
-    public ResponseEntity<?> searchBooksByTitle(@RequestParam String title) {
-        try {
-            List<BookDTO> books = bookService.searchBooksByTitle(title);
-            if (books.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Non sono presenti libri con il titolo: " + title);
-            }
-            return ResponseEntity.ok(books);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+    public ResponseEntity<?> searchBooksByTitle(@RequestParam String title,
+                                                @RequestParam(required = false) Integer page,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) List<String> sort,
+                                                @RequestParam(defaultValue = "false") boolean count) {
+        SliceRequest slice = sliceRequest(page, size, sort, count);
+        if (slice != null) {
+            return sliced(bookService.searchBooksByTitle(title, slice), ApiErrors.NO_BOOKS_BY_TITLE);
+        }
+        List<BookDTO> books = bookService.searchBooksByTitle(title);
+        if (books.isEmpty()) {
+            return ApiErrors.NO_BOOKS_BY_TITLE;
         }
+        return ResponseEntity.ok(books);
     }
 
     /**
      * Recupera i libri pubblicati prima di un anno specifico.
      * Verifica che il parametro anno sia numerico.
      *
-     * @param year l'anno limite (come stringa)
+     * @param year   l'anno limite (come stringa)
+     * @param page   il numero di pagina, a partire da 0 (opzionale)
+     * @param size   il numero di libri per pagina, limitato lato server (opzionale)
+     * @param sort   i campi di ordinamento, con prefisso "-" per l'ordine discendente (opzionale)
+     * @param count  true per includere i totali nella pagina
      * @return una lista di libri oppure un messaggio di errore se nessun libro è trovato o input non valido
      */
     @GetMapping("/before/{year}")
-    public ResponseEntity<?> getBooksBeforeYear(@PathVariable String year) {
+    public ResponseEntity<?> getBooksBeforeYear(@PathVariable String year,
+                                                @RequestParam(required = false) Integer page,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) List<String> sort,
+                                                @RequestParam(defaultValue = "false") boolean count) {
         if (!year.matches("\\d+")) {
-            return ResponseEntity.badRequest().body("L'anno deve essere un numero valido.");
-        }
-        try {
-            int yearInt = Integer.parseInt(year);
-            List<BookDTO> books = bookService.findBooksByAnnoLessThan(yearInt);
-            if (books.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Non sono presenti libri pubblicati prima dell'anno: " + year);
-            }
-            return ResponseEntity.ok(books);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+            return ApiErrors.INVALID_YEAR;
+        }
+        int yearInt = Integer.parseInt(year);
+        SliceRequest slice = sliceRequest(page, size, sort, count);
+        if (slice != null) {
+            return sliced(bookService.findBooksByAnnoLessThan(yearInt, slice), ApiErrors.NO_BOOKS_BEFORE_YEAR);
         }
+        List<BookDTO> books = bookService.findBooksByAnnoLessThan(yearInt);
+        if (books.isEmpty()) {
+            return ApiErrors.NO_BOOKS_BEFORE_YEAR;
+        }
+        return ResponseEntity.ok(books);
     }
 
     /**
@@ -208,20 +392,45 @@ public class BookController {
     @GetMapping("/count/author/{author}")
     public ResponseEntity<?> countBooksByAuthor(@PathVariable String author) {
         if (author.matches("\\d+")) {
-            return ResponseEntity.badRequest()
-                    .body("Il parametro per autore non può essere composto solo da numeri.");
-        }
-        try {
-            int count = bookService.countBooksByAuthor(author);
-            if (count == 0) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Nessun libro trovato per l'autore: " + author);
-            }
-            return ResponseEntity.ok(count);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+            return ApiErrors.NUMERIC_AUTHOR;
+        }
+        if (!bookService.mayHaveBooksByAuthor(author)) {
+            return ApiErrors.NO_BOOKS_BY_AUTHOR;
         }
+        int count = bookService.countBooksByAuthor(author);
+        if (count == 0) {
+            return ApiErrors.NO_BOOKS_BY_AUTHOR;
+        }
+        return ResponseEntity.ok(count);
+    }
+
+    /**
+     * Restituisce i conteggi per genere, autore e decennio, filtrati con gli stessi criteri delle ricerche.
+     * Verifica che autore e genere non siano composti solo da numeri e che l'anno sia un numero.
+     *
+     * @param author l'autore dei libri da contare (opzionale)
+     * @param genre  il genere dei libri da contare (opzionale)
+     * @param title  la stringa che il titolo deve contenere (opzionale)
+     * @param before l'anno prima del quale i libri sono stati pubblicati (opzionale)
+     * @return ResponseEntity con i conteggi per faccetta o un messaggio d'errore.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(@RequestParam(required = false) String author,
+                                       @RequestParam(required = false) String genre,
+                                       @RequestParam(required = false) String title,
+                                       @RequestParam(required = false) String before) {
+        if (author != null && author.matches("\\d+")) {
+            return ApiErrors.NUMERIC_AUTHOR;
+        }
+        if (genre != null && genre.matches("\\d+")) {
+            return ApiErrors.NUMERIC_GENRE;
+        }
+        if (before != null && !before.matches("\\d+")) {
+            return ApiErrors.INVALID_YEAR;
+        }
+        BookFacets facets = bookService.getFacets(author, genre, title,
+                before == null ? null : Integer.valueOf(before));
+        return ResponseEntity.ok(facets);
     }
 
     /**
@@ -231,17 +440,55 @@ public class BookController {
      */
     @GetMapping("/sorted")
     public ResponseEntity<?> getBooksSortedByAnnoDesc() {
-        try {
-            List<BookDTO> books = bookService.getBooksSortedByAnnoDesc();
-            if (books.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Non sono presenti libri ordinabili.");
-            }
-            return ResponseEntity.ok(books);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+        List<BookDTO> books = bookService.getBooksSortedByAnnoDesc();
+        if (books.isEmpty()) {
+            return ApiErrors.NO_SORTABLE_BOOKS;
+        }
+        return ResponseEntity.ok(books);
+    }
+
+    /**
+     * Recupera i libri pubblicati tra due anni, inclusi, dal più recente.
+     * L'intervallo e l'eventuale limite vengono applicati dalla query sull'indice per anno.
+     *
+     * @param from  l'anno iniziale (come stringa)
+     * @param to    l'anno finale (come stringa)
+     * @param limit il numero massimo di libri restituiti (opzionale)
+     * @return una lista di libri oppure un messaggio di errore se nessun libro è trovato o input non valido
+     */
+    @GetMapping("/between")
+    public ResponseEntity<?> getBooksBetweenYears(@RequestParam String from,
+                                                  @RequestParam String to,
+                                                  @RequestParam(required = false) Integer limit) {
+        if (!from.matches("\\d+") || !to.matches("\\d+")) {
+            return ApiErrors.INVALID_YEAR;
+        }
+        int fromYear = Integer.parseInt(from);
+        int toYear = Integer.parseInt(to);
+        if (fromYear > toYear) {
+            return ApiErrors.INVALID_YEAR_RANGE;
+        }
+        List<BookDTO> books = bookService.findBooksByAnnoBetween(fromYear, toYear, limit);
+        if (books.isEmpty()) {
+            return ApiErrors.NO_BOOKS_IN_YEAR_RANGE;
         }
+        return ResponseEntity.ok(books);
+    }
+
+    /**
+     * Recupera i libri più recenti, ad esempio per le novità in home page.
+     * Il limite viene applicato dalla query, che legge l'indice per anno già ordinato.
+     *
+     * @param limit il numero di libri richiesti, 20 se non indicato
+     * @return ResponseEntity con la lista dei BookDTO o un messaggio d'errore.
+     */
+    @GetMapping("/newest")
+    public ResponseEntity<?> getNewestBooks(@RequestParam(defaultValue = "20") int limit) {
+        List<BookDTO> books = bookService.getNewestBooks(limit);
+        if (books.isEmpty()) {
+            return ApiErrors.NO_SORTABLE_BOOKS;
+        }
+        return ResponseEntity.ok(books);
     }
 
     /**
@@ -250,26 +497,90 @@ public class BookController {
      *
      * @param title  la stringa da cercare nel titolo
      * @param author la stringa da cercare nell'autore
+     * @param page   il numero di pagina, a partire da 0 (opzionale)
+     * @param size   il numero di libri per pagina, limitato lato server (opzionale)
+     * @param sort   i campi di ordinamento, con prefisso "-" per l'ordine discendente (opzionale)
+     * @param count  true per includere i totali nella pagina
      * @return una lista di libri oppure un messaggio di errore se nessun libro è trovato o input non valido
      */
     @GetMapping("/search/title-or-author")
     public ResponseEntity<?> searchBooksByTitleOrAuthor(@RequestParam String title,
-                                                        @RequestParam String author) {
+                                                        @RequestParam String author,
+                                                        @RequestParam(required = false) Integer page,
+                                                        @RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) List<String> sort,
+                                                        @RequestParam(defaultValue = "false") boolean count) {
         if (author.matches("\\d+")) {
-            return ResponseEntity.badRequest()
-                    .body("Il parametro per autore non può essere composto solo da numeri.");
-        }
-        try {
-            List<BookDTO> books = bookService.findBooksByTitleOrAuthor(title, author);
-            if (books.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Non sono presenti libri con il titolo '" + title +
-                                "' o l'autore '" + author + "'.");
-            }
-            return ResponseEntity.ok(books);
-        } catch (Exception ex) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Errore inaspettato nella gestione della richiesta, riprovare più tardi.");
+            return ApiErrors.NUMERIC_AUTHOR;
+        }
+        SliceRequest slice = sliceRequest(page, size, sort, count);
+        if (slice != null) {
+            return sliced(bookService.findBooksByTitleOrAuthor(title, author, slice), ApiErrors.NO_BOOKS_BY_TITLE_OR_AUTHOR);
         }
+        List<BookDTO> books = bookService.findBooksByTitleOrAuthor(title, author);
+        if (books.isEmpty()) {
+            return ApiErrors.NO_BOOKS_BY_TITLE_OR_AUTHOR;
+        }
+        return ResponseEntity.ok(books);
     }
+
+    /**
+     * Costruisce la richiesta di pagina dai parametri delle ricerche. Se nessuno è presente la ricerca
+     * restituisce l'elenco completo come in precedenza; altrimenti i valori mancanti prendono quelli predefiniti.
+     *
+     * @param page  il numero di pagina, null per la prima
+     * @param size  il numero di libri per pagina, null per quello predefinito
+     * @param sort  i campi di ordinamento, null per ordinare per ID
+     * @param count true per includere i totali
+     * @return la richiesta di pagina, oppure null se la ricerca non è paginata
+     */
+    private static SliceRequest sliceRequest(Integer page, Integer size, List<String> sort, boolean count) {
+        if (page == null && size == null && sort == null && !count)
+            return null;
+        return new SliceRequest(page == null ? 0 : page, size == null ? DEFAULT_PAGE_SIZE : size,
+                sort == null ? List.of() : sort, count);
+    }
+
+    /**
+     * Risponde con la pagina, oppure con il messaggio di ricerca vuota se anche la prima pagina non ha libri.
+     * Una pagina oltre l'ultima resta una risposta 200 con contenuto vuoto.
+     *
+     * @param slice    la pagina letta
+     * @param notFound la risposta preallocata per la ricerca senza risultati
+     * @return la risposta HTTP
+     */
+    private static ResponseEntity<?> sliced(BookSlice slice, ResponseEntity<String> notFound) {
+        if (slice.content().isEmpty() && slice.page() == 0) {
+            return notFound;
+        }
+        return ResponseEntity.ok(slice);
+    }
+
+    /**
+     * Costruisce un'ETag forte a partire da un token di versione.
+     *
+     * @param version il token di versione restituito dal servizio
+     * @return l'ETag tra virgolette
+     */
+    private static String etag(String version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Estrae il token di versione da un header If-Match.
+     * "*" equivale a nessuna verifica, visto che il libro deve comunque esistere. ETag deboli o liste
+     * restano come sono: non corrispondono a nessun token e la precondizione fallisce.
+     *
+     * @param ifMatch il valore dell'header, eventualmente null
+     * @return il token atteso, oppure null se non va verificato
+     */
+    private static String expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*"))
+            return null;
+        String value = ifMatch.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"") && value.indexOf('"', 1) == value.length() - 1)
+            return value.substring(1, value.length() - 1);
+        return value;
+    }
+
 }
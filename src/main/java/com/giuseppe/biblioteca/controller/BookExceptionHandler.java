@@ -0,0 +1,100 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.giuseppe.biblioteca.service.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Traduce in risposte HTTP le eccezioni sollevate dagli endpoint dei libri, al posto dei try/catch
+ * ripetuti in ogni metodo del controller. I casi "non trovato" non passano da qui: il servizio
+ * li restituisce come Optional vuoti o liste vuote e il controller risponde con le risposte
+ * preallocate di {@link ApiErrors}.
+ */
+@RestControllerAdvice(assignableTypes = BookController.class)
+@Profile("!reactive")
+public class BookExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(BookExceptionHandler.class);
+
+    /**
+     * Input rifiutato dal servizio, ad esempio un cursore non valido.
+     * Le altre IllegalArgumentException sono errori del codice e finiscono in {@link #unexpected(Exception)}.
+     *
+     * @param ex l'eccezione con il messaggio per il client
+     * @return la risposta 400
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<String> invalidRequest(InvalidRequestException ex) {
+        return ResponseEntity.badRequest().body(ex.getMessage());
+    }
+
+    /**
+     * Modifica in conflitto: 412 se il client ha posto una precondizione con If-Match,
+     * 409 se due richieste senza If-Match hanno modificato lo stesso libro nello stesso momento.
+     *
+     * @param ex      l'eccezione di locking ottimistico
+     * @param request la richiesta, da cui leggere If-Match
+     * @return la risposta di errore
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> conflict(OptimisticLockingFailureException ex, WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_MATCH) != null ? ApiErrors.PRECONDITION_FAILED : ApiErrors.CONFLICT;
+    }
+
+    /**
+     * Corpo NDJSON non valido nell'inserimento massivo.
+     *
+     * @param ex l'errore di parsing
+     * @return la risposta 400
+     */
+    @ExceptionHandler(JsonProcessingException.class)
+    public ResponseEntity<String> invalidNdjson(JsonProcessingException ex) {
+        return ResponseEntity.badRequest().body("NDJSON non valido: " + ex.getOriginalMessage());
+    }
+
+    /**
+     * Errore di mapping NDJSON incapsulato dall'iteratore di Jackson.
+     *
+     * @param ex l'errore di mapping
+     * @return la risposta 400
+     */
+    @ExceptionHandler(RuntimeJsonMappingException.class)
+    public ResponseEntity<String> invalidNdjson(RuntimeJsonMappingException ex) {
+        return ex.getCause() instanceof JsonProcessingException jpex
+                ? invalidNdjson(jpex)
+                : ResponseEntity.badRequest().body("NDJSON non valido: " + ex.getMessage());
+    }
+
+    /**
+     * Qualsiasi altro errore. Le eccezioni che Spring sa già tradurre (parametri mancanti o non convertibili,
+     * corpo illeggibile, {@link ResponseStatus}) vengono rilanciate per mantenere il loro stato HTTP.
+     *
+     * @param ex l'eccezione
+     * @return la risposta 400 per gli errori di parsing incapsulati, altrimenti 500
+     * @throws Exception l'eccezione stessa, se gestita da Spring
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<String> unexpected(Exception ex) throws Exception {
+        if (ex instanceof ErrorResponse || ex instanceof TypeMismatchException
+                || AnnotatedElementUtils.hasAnnotation(ex.getClass(), ResponseStatus.class))
+            throw ex;
+        // L'iteratore di Jackson incapsula gli errori di parsing in eccezioni unchecked.
+        if (ex.getCause() instanceof JsonProcessingException jpex)
+            return invalidNdjson(jpex);
+        log.error("Errore inaspettato nella gestione della richiesta", ex);
+        return ApiErrors.INTERNAL_ERROR;
+    }
+}
@@ -0,0 +1,130 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.giuseppe.biblioteca.config.CacheConfig;
+import com.giuseppe.biblioteca.index.AuthorCounters;
+import com.giuseppe.biblioteca.index.NegativeLookupFilter;
+import com.giuseppe.biblioteca.index.TitleTrigramIndex;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller diagnostico che espone le statistiche delle strutture in memoria del servizio.
+ */
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private TitleTrigramIndex titleIndex;
+
+    private CacheManager cacheManager;
+
+    private AuthorCounters authorCounters;
+
+    private NegativeLookupFilter negativeLookup;
+
+    /**
+     * Statistiche di una cache.
+     *
+     * @param size      il numero stimato di voci presenti
+     * @param hits      il numero di letture servite dalla cache
+     * @param misses    il numero di letture che hanno richiesto il database
+     * @param hitRate   la frazione di letture servite dalla cache
+     * @param evictions il numero di voci rimosse per dimensione o scadenza
+     */
+    public record CacheCounters(
+            long size,
+            long hits,
+            long misses,
+            double hitRate,
+            long evictions) {
+    }
+
+    /**
+     * Inietta le strutture di cui esporre le statistiche.
+     *
+     * @param titleIndex     l'indice a trigrammi sui titoli
+     * @param cacheManager   il cache manager dell'applicazione
+     * @param authorCounters i contatori materializzati dei libri per autore
+     * @param negativeLookup i filtri di Bloom degli autori e dei generi presenti
+     */
+    public StatsController(TitleTrigramIndex titleIndex, CacheManager cacheManager, AuthorCounters authorCounters,
+                           NegativeLookupFilter negativeLookup) {
+        this.titleIndex = titleIndex;
+        this.cacheManager = cacheManager;
+        this.authorCounters = authorCounters;
+        this.negativeLookup = negativeLookup;
+    }
+
+    /**
+     * Restituisce le statistiche dell'indice a trigrammi sui titoli.
+     *
+     * @return numero di titoli e trigrammi, memoria stimata e tempo di costruzione
+     */
+    @GetMapping("/title-index")
+    public TitleTrigramIndex.Stats titleIndex() {
+        return titleIndex.stats();
+    }
+
+    /**
+     * Restituisce i contatori della cache dei libri letti per ID.
+     *
+     * @return dimensione, hit, miss ed eviction della cache
+     */
+    @GetMapping("/cache")
+    public CacheCounters bookCache() {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        CacheStats stats = cache.getNativeCache().stats();
+        return new CacheCounters(cache.getNativeCache().estimatedSize(),
+                stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    /**
+     * Restituisce il report dell'ultima riconciliazione dei contatori per autore.
+     *
+     * @return il report oppure 404 se la prima costruzione non è ancora terminata
+     */
+    @GetMapping("/author-counts")
+    public ResponseEntity<AuthorCounters.ReconciliationReport> authorCounts() {
+        AuthorCounters.ReconciliationReport report = authorCounters.lastReport();
+        return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+    }
+
+    /**
+     * Esegue subito una riconciliazione dei contatori per autore con il database.
+     *
+     * @return il report della riconciliazione con l'eventuale deriva rilevata,
+     * oppure 503 se è stata saltata perché le modifiche in corso non sono state applicate in tempo
+     */
+    @PostMapping("/author-counts/reconcile")
+    public ResponseEntity<AuthorCounters.ReconciliationReport> reconcileAuthorCounts() {
+        AuthorCounters.ReconciliationReport report = authorCounters.reconcile();
+        return report == null ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build() : ResponseEntity.ok(report);
+    }
+
+    /**
+     * Restituisce le statistiche dei filtri di Bloom su autori e generi.
+     *
+     * @return inserimenti, probabilità di falso positivo stimate e ricerche risolte senza database
+     */
+    @GetMapping("/negative-lookup")
+    public NegativeLookupFilter.Stats negativeLookup() {
+        return negativeLookup.stats();
+    }
+
+    /**
+     * Ricostruisce subito i filtri di Bloom dalla tabella, eliminando i valori dei libri cancellati.
+     *
+     * @return le statistiche dei nuovi filtri
+     */
+    @PostMapping("/negative-lookup/rebuild")
+    public NegativeLookupFilter.Stats rebuildNegativeLookup() {
+        return negativeLookup.rebuild();
+    }
+}
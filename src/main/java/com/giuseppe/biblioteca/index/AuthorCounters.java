@@ -0,0 +1,269 @@
+package com.giuseppe.biblioteca.index;
+
+import com.giuseppe.biblioteca.model.AuthorCount;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import com.giuseppe.biblioteca.service.CatalogChangeEvent;
+import com.giuseppe.biblioteca.service.CatalogWriteTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Contatori materializzati del numero di libri per autore.
+ * Vengono aggiornati in modo incrementale dai {@link CatalogChangeEvent} e riconciliati
+ * periodicamente con un GROUP BY sulla tabella, segnalando l'eventuale deriva.
+ * La riconciliazione non ferma le scritture. Dopo il GROUP BY attende, tramite il {@link CatalogWriteTracker},
+ * che siano applicati gli eventi delle modifiche già confermate, così nessuna di esse viene contata due volte.
+ * Gli autori toccati da un evento durante la riconciliazione mantengono il contatore in memoria, perché non si può
+ * sapere se il GROUP BY abbia visto quella modifica; gli altri prendono il valore letto, e per loro una deriva
+ * segnalata indica un vero errore dei contatori.
+ */
+@Component
+public class AuthorCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthorCounters.class);
+
+    private static final int MAX_DRIFT_SAMPLES = 20;
+
+    private final BookRepository bookRepository;
+
+    private final CatalogWriteTracker writeTracker;
+
+    private final Duration reconcileTimeout;
+
+    private final Object lock = new Object();
+
+    private final Object reconcileLock = new Object();
+
+    private Set<String> touched;
+
+    private volatile Map<String, Long> counts = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    private volatile ReconciliationReport lastReport;
+
+    /**
+     * Esito di una riconciliazione dei contatori con il database.
+     *
+     * @param completedAt    l'istante in cui la riconciliazione è terminata
+     * @param durationMillis la durata della riconciliazione in millisecondi
+     * @param authors        il numero di autori presenti nel database
+     * @param skippedAuthors il numero di autori modificati durante la riconciliazione, non confrontati con il database
+     * @param driftedAuthors il numero di autori il cui contatore non corrispondeva al database
+     * @param totalDrift     la somma delle differenze assolute tra contatori e database
+     * @param samples        alcuni degli autori in deriva, con il valore atteso e quello in memoria
+     */
+    public record ReconciliationReport(
+            Instant completedAt,
+            long durationMillis,
+            int authors,
+            int skippedAuthors,
+            int driftedAuthors,
+            long totalDrift,
+            List<Drift> samples) {
+    }
+
+    /**
+     * Differenza tra il contatore in memoria e il conteggio reale di un autore.
+     *
+     * @param author   l'autore
+     * @param expected il numero di libri presenti nel database
+     * @param actual   il valore del contatore in memoria
+     */
+    public record Drift(
+            String author,
+            long expected,
+            long actual) {
+    }
+
+    /**
+     * Inietta il repository usato per la riconciliazione e il registro delle modifiche in corso.
+     *
+     * @param bookRepository   il repository dei libri
+     * @param writeTracker     il registro delle modifiche il cui evento non è ancora stato applicato
+     * @param reconcileTimeout l'attesa massima per quelle modifiche, oltre la quale la riconciliazione viene saltata
+     */
+    public AuthorCounters(BookRepository bookRepository, CatalogWriteTracker writeTracker,
+                          @Value("${biblioteca.author-counts.reconcile-timeout:PT30S}") Duration reconcileTimeout) {
+        this.bookRepository = bookRepository;
+        this.writeTracker = writeTracker;
+        this.reconcileTimeout = reconcileTimeout;
+    }
+
+    /**
+     * Costruisce i contatori all'avvio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        reconcile();
+    }
+
+    /**
+     * Ricostruisce i contatori dalla tabella e segnala la deriva rispetto ai valori mantenuti in memoria.
+     * Se le modifiche confermate prima del GROUP BY non vengono applicate entro il tempo massimo,
+     * la riconciliazione viene saltata e i contatori restano quelli mantenuti in memoria.
+     *
+     * @return il report della riconciliazione, oppure null se è stata saltata
+     */
+    @Scheduled(initialDelayString = "${biblioteca.author-counts.reconcile-interval:PT10M}",
+            fixedDelayString = "${biblioteca.author-counts.reconcile-interval:PT10M}")
+    public ReconciliationReport reconcile() {
+        return reconcile(reconcileTimeout);
+    }
+
+    /**
+     * Esegue la riconciliazione con un'attesa massima specifica; una sola riconciliazione alla volta.
+     *
+     * @param timeout l'attesa massima per le modifiche confermate prima del GROUP BY
+     * @return il report della riconciliazione, oppure null se è stata saltata
+     */
+    ReconciliationReport reconcile(Duration timeout) {
+        synchronized (reconcileLock) {
+            long start = System.nanoTime();
+            synchronized (lock) {
+                touched = new HashSet<>();
+            }
+            try {
+                Map<String, Long> rebuilt = new ConcurrentHashMap<>();
+                for (AuthorCount authorCount : bookRepository.countGroupByAuthor()) {
+                    if (authorCount.author() != null)
+                        rebuilt.put(authorCount.author(), authorCount.books());
+                }
+                if (!writeTracker.awaitClosed(writeTracker.lastIssued(), timeout)) {
+                    log.warn("Riconciliazione dei contatori per autore saltata: modifiche ancora da applicare dopo {}",
+                            timeout);
+                    return null;
+                }
+
+                ReconciliationReport report;
+                synchronized (lock) {
+                    report = swap(rebuilt, start);
+                }
+                lastReport = report;
+
+                if (report.driftedAuthors() > 0)
+                    log.warn("Contatori per autore riconciliati: {} autori in deriva, deriva totale {}",
+                            report.driftedAuthors(), report.totalDrift());
+                else
+                    log.info("Contatori per autore riconciliati: {} autori, {} modificati durante la lettura, nessuna deriva",
+                            report.authors(), report.skippedAuthors());
+                return report;
+            } finally {
+                synchronized (lock) {
+                    touched = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Aggiorna i contatori dopo il commit di una modifica al catalogo, prima di chiuderne il ticket.
+     * L'evento viene ricevuto quando è pubblicato e applicato solo se la transazione va in commit.
+     *
+     * @param event l'evento di modifica
+     */
+    @EventListener
+    public void onCatalogChange(CatalogChangeEvent event) {
+        writeTracker.runAfterCommit(() -> apply(event));
+    }
+
+    /**
+     * Indica se i contatori sono stati costruiti e possono essere interrogati.
+     *
+     * @return true se i contatori sono pronti
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Restituisce il numero di libri dell'autore in tempo costante.
+     *
+     * @param author l'autore
+     * @return il numero di libri dell'autore, 0 se non ne ha
+     */
+    public long count(String author) {
+        return author == null ? 0 : counts.getOrDefault(author, 0L);
+    }
+
+    /**
+     * Restituisce il report dell'ultima riconciliazione.
+     *
+     * @return il report, null se la prima costruzione non è ancora terminata
+     */
+    public ReconciliationReport lastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Sostituisce i contatori con quelli letti, tranne per gli autori toccati durante la riconciliazione,
+     * e calcola la deriva sugli altri. Va chiamato tenendo il lock.
+     */
+    private ReconciliationReport swap(Map<String, Long> expected, long start) {
+        Set<String> authors = new HashSet<>(expected.keySet());
+        if (ready)
+            authors.addAll(counts.keySet());
+        authors.removeAll(touched);
+
+        List<Drift> samples = new ArrayList<>();
+        int drifted = 0;
+        long totalDrift = 0;
+        for (String author : authors) {
+            long expectedCount = expected.getOrDefault(author, 0L);
+            // Alla prima costruzione non ci sono contatori da confrontare.
+            long actualCount = ready ? counts.getOrDefault(author, 0L) : expectedCount;
+            if (expectedCount != actualCount) {
+                drifted++;
+                totalDrift += Math.abs(expectedCount - actualCount);
+                if (samples.size() < MAX_DRIFT_SAMPLES)
+                    samples.add(new Drift(author, expectedCount, actualCount));
+            }
+        }
+
+        Map<String, Long> rebuilt = new ConcurrentHashMap<>(expected);
+        for (String author : touched) {
+            rebuilt.remove(author);
+            Long live = counts.get(author);
+            if (live != null)
+                rebuilt.put(author, live);
+        }
+        counts = rebuilt;
+        // Prima della prima costruzione i contatori toccati contengono solo le variazioni, non i totali:
+        // restano inaffidabili fino alla riconciliazione successiva.
+        ready = ready || touched.isEmpty();
+        return new ReconciliationReport(Instant.now(), (System.nanoTime() - start) / 1_000_000,
+                expected.size(), touched.size(), drifted, totalDrift, samples);
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        synchronized (lock) {
+            for (BookDTO book : event.removed())
+                add(book.author(), -1);
+            for (BookDTO book : event.added())
+                add(book.author(), 1);
+        }
+    }
+
+    private void add(String author, long delta) {
+        if (author == null)
+            return;
+        if (touched != null)
+            touched.add(author);
+        counts.merge(author, delta, (current, change) -> current + change == 0 ? null : current + change);
+    }
+}
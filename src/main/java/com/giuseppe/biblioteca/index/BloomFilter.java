@@ -0,0 +1,136 @@
+package com.giuseppe.biblioteca.index;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtro di Bloom su stringhe: risponde "forse presente" oppure "sicuramente assente".
+ * Non ha falsi negativi; la probabilità di falso positivo resta vicina a quella richiesta finché
+ * gli inserimenti non superano la capacità prevista, poi cresce senza compromettere la correttezza.
+ * Inserimenti e letture sono sicuri tra thread senza lock: i bit vengono solo accesi, con CAS.
+ */
+public final class BloomFilter {
+
+    /**
+     * Limite delle parole da 64 bit allocabili in un unico array.
+     */
+    private static final int MAX_WORDS = Integer.MAX_VALUE - 8;
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final LongAdder insertions = new LongAdder();
+
+    /**
+     * Dimensiona il filtro con le formule classiche: m = -n ln p / (ln 2)^2 bit e k = m / n ln 2 funzioni hash.
+     *
+     * @param expectedInsertions il numero di valori distinti previsti
+     * @param falsePositiveRate  la probabilità di falso positivo desiderata, tra 0 e 1 esclusi
+     * @throws IllegalArgumentException se la probabilità non è valida
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1))
+            throw new IllegalArgumentException("Probabilità di falso positivo non valida: " + falsePositiveRate);
+        long n = Math.max(1, expectedInsertions);
+        double bits = -n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        int wordCount = (int) Math.min(MAX_WORDS, Math.max(1, (long) Math.ceil(bits / Long.SIZE)));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Aggiunge un valore al filtro.
+     *
+     * @param value il valore da aggiungere
+     */
+    public void add(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 1; i <= hashCount; i++)
+            set(index(h1, h2, i));
+        insertions.increment();
+    }
+
+    /**
+     * Verifica se il valore può essere presente.
+     *
+     * @param value il valore da cercare
+     * @return false se il valore non è mai stato aggiunto, true se potrebbe esserlo
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = index(h1, h2, i);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Restituisce il numero di inserimenti eseguiti, duplicati compresi.
+     *
+     * @return il numero di inserimenti
+     */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    /**
+     * Restituisce la dimensione del filtro in bit.
+     *
+     * @return il numero di bit
+     */
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * Stima la probabilità di falso positivo attuale, (1 - e^(-k n / m))^k, dagli inserimenti eseguiti.
+     * I duplicati non accendono nuovi bit, quindi la stima è per eccesso.
+     *
+     * @return la probabilità stimata di falso positivo
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashCount * (double) insertions() / bitCount), hashCount);
+    }
+
+    // Doppio hashing di Kirsch e Mitzenmacher: le k posizioni derivano da due soli hash a 64 bit.
+    private long index(long h1, long h2, int i) {
+        return ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+    }
+
+    private void set(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current = words.get(word);
+        while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask))
+            current = words.get(word);
+    }
+
+    /**
+     * FNV-1a a 64 bit sui caratteri, seguito dal finalizzatore di MurmurHash3 per distribuire i bit.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
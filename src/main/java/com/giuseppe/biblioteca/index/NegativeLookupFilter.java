@@ -0,0 +1,222 @@
+package com.giuseppe.biblioteca.index;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import com.giuseppe.biblioteca.service.CatalogChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtri di Bloom degli autori e dei generi presenti nel catalogo, per rispondere alle ricerche di valori
+ * inesistenti senza interrogare il database.
+ * Vengono aggiornati dai {@link CatalogChangeEvent} dopo ogni commit, ma un filtro di Bloom non supporta
+ * la rimozione: la ricostruzione periodica dalla tabella elimina i valori non più presenti.
+ * Le modifiche che arrivano durante la ricostruzione vengono applicate subito ai filtri in uso
+ * e riapplicate a quelli nuovi prima di sostituirli.
+ */
+@Component
+public class NegativeLookupFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(NegativeLookupFilter.class);
+
+    /**
+     * Capacità minima di ciascun filtro, così anche un catalogo vuoto assorbe i primi inserimenti.
+     */
+    private static final int MIN_CAPACITY = 1024;
+
+    private final BookRepository bookRepository;
+
+    private final double falsePositiveRate;
+
+    private final Object lock = new Object();
+
+    private volatile Filters filters;
+
+    private boolean rebuilding;
+
+    private final List<CatalogChangeEvent> pending = new ArrayList<>();
+
+    private final LongAdder rejectedAuthors = new LongAdder();
+
+    private final LongAdder rejectedGenres = new LongAdder();
+
+    private volatile long buildMillis;
+
+    private volatile Instant builtAt;
+
+    /**
+     * Statistiche dei filtri.
+     *
+     * @param ready                  se i filtri sono stati costruiti
+     * @param authorInsertions       gli autori inseriti dall'ultima ricostruzione, duplicati compresi
+     * @param genreInsertions        i generi inseriti dall'ultima ricostruzione, duplicati compresi
+     * @param authorFalsePositiveRate la probabilità stimata di falso positivo sugli autori
+     * @param genreFalsePositiveRate la probabilità stimata di falso positivo sui generi
+     * @param bytes                  la memoria occupata dai bit dei due filtri
+     * @param rejectedAuthors        le ricerche per autore risolte senza database
+     * @param rejectedGenres         le ricerche per genere risolte senza database
+     * @param buildMillis            la durata dell'ultima ricostruzione in millisecondi
+     * @param builtAt                l'istante dell'ultima ricostruzione
+     */
+    public record Stats(
+            boolean ready,
+            long authorInsertions,
+            long genreInsertions,
+            double authorFalsePositiveRate,
+            double genreFalsePositiveRate,
+            long bytes,
+            long rejectedAuthors,
+            long rejectedGenres,
+            long buildMillis,
+            Instant builtAt) {
+    }
+
+    private record Filters(BloomFilter authors, BloomFilter genres) {
+
+        void add(BookDTO book) {
+            if (book.author() != null)
+                authors.add(book.author());
+            if (book.genre() != null)
+                genres.add(book.genre());
+        }
+    }
+
+    /**
+     * Inietta il repository e la configurazione.
+     *
+     * @param bookRepository    il repository dei libri
+     * @param falsePositiveRate la probabilità di falso positivo desiderata
+     */
+    public NegativeLookupFilter(BookRepository bookRepository,
+                                @Value("${biblioteca.negative-lookup.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.bookRepository = bookRepository;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Costruisce i filtri all'avvio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * Ricostruisce i filtri dai valori distinti presenti in tabella, eliminando quelli dei libri cancellati.
+     * Ogni filtro è dimensionato per il doppio dei valori attuali, per assorbire gli inserimenti fino alla
+     * ricostruzione successiva.
+     *
+     * @return le statistiche dei nuovi filtri
+     */
+    @Scheduled(initialDelayString = "${biblioteca.negative-lookup.rebuild-interval:PT10M}",
+            fixedDelayString = "${biblioteca.negative-lookup.rebuild-interval:PT10M}")
+    public Stats rebuild() {
+        synchronized (lock) {
+            rebuilding = true;
+        }
+        long start = System.nanoTime();
+
+        List<String> authors = bookRepository.findDistinctAuthors();
+        List<String> genres = bookRepository.findDistinctGenres();
+        Filters rebuilt = new Filters(filter(authors.size()), filter(genres.size()));
+        authors.forEach(rebuilt.authors()::add);
+        genres.forEach(rebuilt.genres()::add);
+
+        synchronized (lock) {
+            for (CatalogChangeEvent event : pending)
+                event.added().forEach(rebuilt::add);
+            pending.clear();
+            filters = rebuilt;
+            rebuilding = false;
+        }
+        buildMillis = (System.nanoTime() - start) / 1_000_000;
+        builtAt = Instant.now();
+
+        Stats stats = stats();
+        log.info("Filtri di ricerca negativa ricostruiti: {} autori, {} generi, {} byte in {} ms",
+                authors.size(), genres.size(), stats.bytes(), stats.buildMillis());
+        return stats;
+    }
+
+    /**
+     * Aggiunge ai filtri autori e generi dei libri inseriti o aggiornati dopo il commit.
+     *
+     * @param event l'evento di modifica
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        if (event.added().isEmpty())
+            return;
+        synchronized (lock) {
+            Filters current = filters;
+            if (current != null)
+                event.added().forEach(current::add);
+            if (rebuilding)
+                pending.add(event);
+        }
+    }
+
+    /**
+     * Verifica se l'autore può avere libri nel catalogo.
+     *
+     * @param author l'autore
+     * @return false se l'autore sicuramente non ha libri, true se potrebbe averne o se i filtri non sono pronti
+     */
+    public boolean mightContainAuthor(String author) {
+        Filters current = filters;
+        if (current == null || author == null || current.authors().mightContain(author))
+            return true;
+        rejectedAuthors.increment();
+        return false;
+    }
+
+    /**
+     * Verifica se il genere può avere libri nel catalogo.
+     *
+     * @param genre il genere
+     * @return false se il genere sicuramente non ha libri, true se potrebbe averne o se i filtri non sono pronti
+     */
+    public boolean mightContainGenre(String genre) {
+        Filters current = filters;
+        if (current == null || genre == null || current.genres().mightContain(genre))
+            return true;
+        rejectedGenres.increment();
+        return false;
+    }
+
+    /**
+     * Restituisce le statistiche dei filtri.
+     *
+     * @return inserimenti, probabilità di falso positivo stimate, memoria e ricerche evitate
+     */
+    public Stats stats() {
+        Filters current = filters;
+        if (current == null)
+            return new Stats(false, 0, 0, 0, 0, 0, rejectedAuthors.sum(), rejectedGenres.sum(), 0, null);
+        return new Stats(true,
+                current.authors().insertions(),
+                current.genres().insertions(),
+                current.authors().expectedFalsePositiveRate(),
+                current.genres().expectedFalsePositiveRate(),
+                (current.authors().bitCount() + current.genres().bitCount()) / Byte.SIZE,
+                rejectedAuthors.sum(),
+                rejectedGenres.sum(),
+                buildMillis,
+                builtAt);
+    }
+
+    private BloomFilter filter(int distinctValues) {
+        return new BloomFilter(Math.max(MIN_CAPACITY, 2L * distinctValues), falsePositiveRate);
+    }
+}
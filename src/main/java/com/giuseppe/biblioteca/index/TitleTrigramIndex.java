@@ -0,0 +1,260 @@
+package com.giuseppe.biblioteca.index;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import com.giuseppe.biblioteca.service.CatalogChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indice invertito a trigrammi sui titoli dei libri.
+ * Permette di risolvere le ricerche per sottostringa intersecando le posting list dei trigrammi
+ * della query, invece di eseguire un LIKE '%x%' che scansiona l'intera tabella.
+ * Viene costruito all'avvio e mantenuto aggiornato tramite i {@link CatalogChangeEvent}.
+ * Conserva solo gli ID: i candidati non sono verificati e chi li usa riverifica la sottostringa sui titoli letti
+ * dal database, mentre alla rimozione i trigrammi si ricavano dal titolo riportato nell'evento.
+ * Titoli e query vengono portati in maiuscolo come fa upper() nella query LIKE, così l'indice
+ * trova le stesse righe anche per i caratteri la cui conversione non è simmetrica (ß, i con e senza punto).
+ */
+@Component
+public class TitleTrigramIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TitleTrigramIndex.class);
+
+    private static final int GRAM = 3;
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    // Stime approssimative dell'occupazione in byte su una JVM a 64 bit con compressed oops.
+    private static final long ENTRY_OVERHEAD_BYTES = 32;
+    private static final long LONG_BYTES = 16;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+    private static final long SET_OVERHEAD_BYTES = 64;
+
+    private final BookRepository bookRepository;
+
+    private final int maxCandidates;
+
+    private final Object lock = new Object();
+
+    private volatile Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private volatile Set<Long> indexed = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean ready;
+
+    private boolean building;
+
+    private final List<CatalogChangeEvent> pending = new ArrayList<>();
+
+    private volatile long buildMillis;
+
+    /**
+     * Statistiche dell'indice.
+     *
+     * @param ready          true se l'indice è stato costruito e viene usato per le ricerche
+     * @param titles         il numero di titoli indicizzati
+     * @param trigrams       il numero di trigrammi distinti
+     * @param postings       il numero totale di voci nelle posting list
+     * @param estimatedBytes l'occupazione di memoria stimata in byte
+     * @param buildMillis    la durata dell'ultima costruzione in millisecondi
+     */
+    public record Stats(
+            boolean ready,
+            int titles,
+            int trigrams,
+            long postings,
+            long estimatedBytes,
+            long buildMillis) {
+    }
+
+    /**
+     * Inietta il repository da cui costruire l'indice.
+     *
+     * @param bookRepository il repository dei libri
+     * @param maxCandidates  il numero massimo di candidati oltre il quale la ricerca va eseguita sul database
+     */
+    public TitleTrigramIndex(BookRepository bookRepository,
+                             @Value("${biblioteca.title-index.max-candidates:1000}") int maxCandidates) {
+        this.bookRepository = bookRepository;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Costruisce l'indice leggendo il catalogo a blocchi.
+     * Le modifiche che arrivano durante la costruzione vengono accodate e riapplicate alla fine.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (lock) {
+            building = true;
+        }
+        long start = System.nanoTime();
+
+        Map<String, Set<Long>> newPostings = new ConcurrentHashMap<>();
+        Set<Long> newIndexed = ConcurrentHashMap.newKeySet();
+        long lastId = 0L;
+        List<BookDTO> batch;
+        do {
+            batch = bookRepository.findDTOByIdGreaterThan(lastId, Limit.of(BUILD_BATCH_SIZE));
+            for (BookDTO book : batch) {
+                add(newPostings, newIndexed, book.id(), book.title());
+                lastId = book.id();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+
+        synchronized (lock) {
+            postings = newPostings;
+            indexed = newIndexed;
+            pending.forEach(this::apply);
+            pending.clear();
+            building = false;
+            ready = true;
+        }
+        buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        Stats stats = stats();
+        log.info("Indice a trigrammi costruito in {} ms: {} titoli, {} trigrammi, circa {} KB",
+                stats.buildMillis(), stats.titles(), stats.trigrams(), stats.estimatedBytes() / 1024);
+    }
+
+    /**
+     * Aggiorna l'indice dopo il commit di una modifica al catalogo.
+     *
+     * @param event l'evento di modifica
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        synchronized (lock) {
+            if (building)
+                pending.add(event);
+            else
+                apply(event);
+        }
+    }
+
+    /**
+     * Restituisce gli ID dei libri il cui titolo contiene tutti i trigrammi della stringa cercata, ignorando il case.
+     * I trigrammi non garantiscono la contiguità, per cui i candidati includono tutti i titoli che contengono la stringa
+     * ma possono includerne altri: vanno riverificati sul titolo.
+     * Se l'indice non è ancora pronto, la stringa è più corta di un trigramma o i candidati superano il massimo
+     * configurato, restituisce un Optional vuoto e la ricerca va eseguita sul database: una lista di ID troppo
+     * lunga renderebbe la query IN più costosa del LIKE che dovrebbe evitare.
+     *
+     * @param query la stringa da cercare nel titolo
+     * @return gli ID candidati, non verificati, in ordine crescente, oppure vuoto se l'indice non è utilizzabile
+     */
+    public Optional<List<Long>> search(String query) {
+        String normalized = normalize(query);
+        if (!ready || normalized.length() < GRAM)
+            return Optional.empty();
+
+        Map<String, Set<Long>> currentPostings = postings;
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : trigrams(normalized)) {
+            Set<Long> ids = currentPostings.get(gram);
+            if (ids == null)
+                return Optional.of(List.of());
+            lists.add(ids);
+        }
+        // Si parte dalla posting list più corta per ridurre il lavoro dell'intersezione.
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> result = new ArrayList<>();
+        for (Long id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++)
+                inAll = lists.get(i).contains(id);
+
+            if (inAll) {
+                result.add(id);
+                if (result.size() > maxCandidates)
+                    return Optional.empty();
+            }
+        }
+        result.sort(null);
+        return Optional.of(result);
+    }
+
+    /**
+     * Calcola le statistiche correnti dell'indice, inclusa una stima della memoria occupata.
+     *
+     * @return le statistiche dell'indice
+     */
+    public Stats stats() {
+        Map<String, Set<Long>> currentPostings = postings;
+        Set<Long> currentIndexed = indexed;
+
+        long postingCount = 0;
+        long bytes = 0;
+        for (Map.Entry<String, Set<Long>> entry : currentPostings.entrySet()) {
+            int size = entry.getValue().size();
+            postingCount += size;
+            bytes += ENTRY_OVERHEAD_BYTES + STRING_OVERHEAD_BYTES + SET_OVERHEAD_BYTES
+                    + size * (ENTRY_OVERHEAD_BYTES + LONG_BYTES);
+        }
+        bytes += currentIndexed.size() * (ENTRY_OVERHEAD_BYTES + LONG_BYTES);
+
+        return new Stats(ready, currentIndexed.size(), currentPostings.size(), postingCount, bytes, buildMillis);
+    }
+
+    private void apply(CatalogChangeEvent event) {
+        for (BookDTO book : event.removed())
+            remove(book.id(), book.title());
+        for (BookDTO book : event.added())
+            add(postings, indexed, book.id(), book.title());
+    }
+
+    private void remove(Long id, String title) {
+        if (!indexed.remove(id) || title == null)
+            return;
+        for (String gram : trigrams(normalize(title))) {
+            postings.computeIfPresent(gram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static void add(Map<String, Set<Long>> postings, Set<Long> indexed, Long id, String title) {
+        if (title == null)
+            return;
+        indexed.add(id);
+        for (String gram : trigrams(normalize(title)))
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= normalized.length(); i++)
+            grams.add(normalized.substring(i, i + GRAM));
+        return grams;
+    }
+
+    /**
+     * Normalizza un testo per il confronto senza distinzione tra maiuscole e minuscole,
+     * con la stessa conversione in maiuscolo applicata da upper() nel database.
+     *
+     * @param text il testo da normalizzare
+     * @return il testo in maiuscolo
+     */
+    public static String normalize(String text) {
+        return text.toUpperCase(Locale.ROOT);
+    }
+}
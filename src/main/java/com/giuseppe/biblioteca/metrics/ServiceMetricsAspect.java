@@ -0,0 +1,129 @@
+package com.giuseppe.biblioteca.metrics;
+
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.model.BookSlice;
+import com.giuseppe.biblioteca.model.BulkInsertReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misura latenza, numero di chiamate ed errori di ogni metodo di IBookService.
+ * I timer sono etichettati per metodo, esito e fascia di dimensione del risultato e pubblicano
+ * p50/p95/p99 e max. Vengono creati una sola volta per combinazione di etichette e poi riusati,
+ * così sul percorso caldo restano solo una lookup in mappa e la registrazione del tempo.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    static final String CALLS_METRIC = "biblioteca.service.calls";
+
+    static final String ERRORS_METRIC = "biblioteca.service.errors";
+
+    private final MeterRegistry registry;
+
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    private final Map<ErrorKey, Counter> errors = new ConcurrentHashMap<>();
+
+    private record TimerKey(String method, String outcome, String size) {
+    }
+
+    private record ErrorKey(String method, String exception) {
+    }
+
+    /**
+     * Inietta il registro delle metriche.
+     *
+     * @param registry il registro Micrometer dell'applicazione
+     */
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Avvolge ogni chiamata al servizio dei libri registrandone durata ed esito.
+     *
+     * @param joinPoint la chiamata intercettata
+     * @return il risultato della chiamata
+     * @throws Throwable l'eccezione sollevata dal servizio, rilanciata invariata
+     */
+    @Around("execution(* com.giuseppe.biblioteca.service.IBookService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            timer(method, "success", sizeBucket(result)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable ex) {
+            timer(method, "error", "none").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            errors.computeIfAbsent(new ErrorKey(method, ex.getClass().getSimpleName()), key ->
+                    Counter.builder(ERRORS_METRIC)
+                            .description("Errori sollevati dai metodi del servizio dei libri")
+                            .tag("method", key.method())
+                            .tag("exception", key.exception())
+                            .register(registry)).increment();
+            throw ex;
+        }
+    }
+
+    private Timer timer(String method, String outcome, String size) {
+        return timers.computeIfAbsent(new TimerKey(method, outcome, size), key ->
+                Timer.builder(CALLS_METRIC)
+                        .description("Latenza delle chiamate al servizio dei libri")
+                        .tag("method", key.method())
+                        .tag("outcome", key.outcome())
+                        .tag("size", key.size())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(registry));
+    }
+
+    /**
+     * Riconduce il numero di libri restituiti a una fascia, per limitare la cardinalità delle etichette.
+     *
+     * @param result il risultato della chiamata
+     * @return la fascia di dimensione, "none" se il risultato non è una collezione di libri
+     */
+    static String sizeBucket(Object result) {
+        long size;
+        if (result instanceof Collection<?> collection)
+            size = collection.size();
+        else if (result instanceof BookPage page)
+            size = page.content().size();
+        else if (result instanceof BookSlice slice)
+            size = slice.content().size();
+        else if (result instanceof BulkInsertReport report)
+            size = report.inserted();
+        else if (result instanceof Optional<?> optional)
+            size = optional.isPresent() ? 1 : 0;
+        else
+            return "none";
+
+        if (size == 0)
+            return "0";
+        if (size == 1)
+            return "1";
+        if (size <= 10)
+            return "2-10";
+        if (size <= 100)
+            return "11-100";
+        if (size <= 1000)
+            return "101-1000";
+        return "1000+";
+    }
+}
@@ -0,0 +1,12 @@
+package com.giuseppe.biblioteca.model;
+
+/**
+ * Numero di libri presenti per un autore.
+ *
+ * @param author l'autore
+ * @param books  il numero di libri dell'autore
+ */
+public record AuthorCount(
+        String author,
+        long books) {
+}
@@ -4,16 +4,30 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_book_author", columnList = "author"),
+        @Index(name = "idx_book_genre", columnList = "genre"),
+        @Index(name = "idx_book_title", columnList = "title"),
+        // Copre l'ordinamento per anno discendente e le proiezioni su BookDTO senza accedere alla tabella.
+        @Index(name = "idx_book_anno_covering", columnList = "anno desc, id, title, author, genre")
+})
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     private String title;
     private String author;
     private int anno;
     private String genre;
+    @Version
+    private long version;
 
     public Book() {}
 
@@ -64,4 +78,12 @@ public class Book {
     public void setGenre(String genre) {
         this.genre = genre;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,19 @@
+package com.giuseppe.biblioteca.model;
+
+import java.util.List;
+
+/**
+ * Conteggi per faccetta dei libri che rispettano i filtri richiesti.
+ * Generi e autori sono ordinati per numero di libri decrescente, i decenni in ordine cronologico.
+ *
+ * @param total   il numero totale di libri filtrati
+ * @param genres  i conteggi per genere
+ * @param authors i conteggi per autore, limitati ai più numerosi
+ * @param decades i conteggi per decennio, indicato dal suo primo anno
+ */
+public record BookFacets(
+        long total,
+        List<FacetCount> genres,
+        List<FacetCount> authors,
+        List<FacetCount> decades) {
+}
@@ -0,0 +1,14 @@
+package com.giuseppe.biblioteca.model;
+
+import java.util.List;
+
+/**
+ * Pagina di libri ottenuta con paginazione a cursore (keyset) sull'ID.
+ *
+ * @param content i libri della pagina, ordinati per ID crescente
+ * @param next    il cursore opaco da passare per ottenere la pagina successiva, null se non ce ne sono altre
+ */
+public record BookPage(
+        List<BookDTO> content,
+        String next) {
+}
@@ -0,0 +1,39 @@
+package com.giuseppe.biblioteca.model;
+
+/**
+ * Modifica parziale di un libro: i campi null vengono lasciati invariati.
+ *
+ * @param title  il nuovo titolo
+ * @param author il nuovo autore
+ * @param year   il nuovo anno di pubblicazione
+ * @param genre  il nuovo genere
+ */
+public record BookPatchDTO(
+        String title,
+        String author,
+        Integer year,
+        String genre) {
+
+    /**
+     * Indica se la modifica non contiene alcun campo da aggiornare.
+     *
+     * @return true se tutti i campi sono null
+     */
+    public boolean isEmpty() {
+        return title == null && author == null && year == null && genre == null;
+    }
+
+    /**
+     * Applica la modifica a un libro, mantenendo i valori dei campi non specificati.
+     *
+     * @param book il libro da modificare
+     * @return il libro con i campi aggiornati
+     */
+    public BookDTO applyTo(BookDTO book) {
+        return new BookDTO(book.id(),
+                title != null ? title : book.title(),
+                author != null ? author : book.author(),
+                year != null ? year : book.year(),
+                genre != null ? genre : book.genre());
+    }
+}
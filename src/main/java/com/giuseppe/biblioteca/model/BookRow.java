@@ -0,0 +1,24 @@
+package com.giuseppe.biblioteca.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+
+/**
+ * Riga della tabella book, senza passare dall'entità JPA {@link Book}: la usano lo snapshot del catalogo
+ * e, con il profilo Maven "reactive", lo stack R2DBC, che la associa alla tabella in ReactiveStackConfig.
+ *
+ * @param id      l'ID del libro
+ * @param title   il titolo
+ * @param author  l'autore
+ * @param anno    l'anno di pubblicazione
+ * @param genre   il genere
+ * @param version la versione usata per il locking ottimistico
+ */
+public record BookRow(
+        @Id Long id,
+        String title,
+        String author,
+        int anno,
+        String genre,
+        @Version long version) {
+}
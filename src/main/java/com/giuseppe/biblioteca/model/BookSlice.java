@@ -0,0 +1,23 @@
+package com.giuseppe.biblioteca.model;
+
+import java.util.List;
+
+/**
+ * Pagina numerata di libri. Senza conteggio (slice) viene letto un solo libro in più della pagina
+ * per sapere se ne esiste una successiva; i totali sono valorizzati solo se richiesti.
+ *
+ * @param content       i libri della pagina
+ * @param page          il numero della pagina, a partire da 0
+ * @param size          la dimensione della pagina applicata dal server
+ * @param hasNext       true se esiste una pagina successiva
+ * @param totalElements il numero totale di libri, null se il conteggio non è stato richiesto
+ * @param totalPages    il numero totale di pagine, null se il conteggio non è stato richiesto
+ */
+public record BookSlice(
+        List<BookDTO> content,
+        int page,
+        int size,
+        boolean hasNext,
+        Long totalElements,
+        Integer totalPages) {
+}
@@ -0,0 +1,10 @@
+package com.giuseppe.biblioteca.model;
+
+/**
+ * Esito di un'eliminazione massiva.
+ *
+ * @param deleted il numero di libri eliminati
+ */
+public record BulkDeleteReport(
+        int deleted) {
+}
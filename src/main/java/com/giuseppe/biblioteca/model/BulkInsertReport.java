@@ -0,0 +1,31 @@
+package com.giuseppe.biblioteca.model;
+
+import java.util.List;
+
+/**
+ * Esito di un inserimento massivo di libri.
+ *
+ * @param inserted    il numero totale di libri inseriti
+ * @param totalMillis la durata complessiva in millisecondi
+ * @param chunks      il dettaglio di ogni blocco inserito
+ */
+public record BulkInsertReport(
+        int inserted,
+        long totalMillis,
+        List<ChunkReport> chunks) {
+
+    /**
+     * Esito dell'inserimento di un singolo blocco, eseguito in una propria transazione.
+     *
+     * @param chunk         l'indice del blocco, a partire da 0
+     * @param size          il numero di libri nel blocco
+     * @param millis        la durata dell'inserimento in millisecondi
+     * @param rowsPerSecond il throughput del blocco in righe al secondo
+     */
+    public record ChunkReport(
+            int chunk,
+            int size,
+            long millis,
+            double rowsPerSecond) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.giuseppe.biblioteca.model;
+
+/**
+ * Numero di libri che condividono un valore di faccetta (genere, autore o decennio).
+ *
+ * @param value il valore della faccetta
+ * @param books il numero di libri con quel valore
+ */
+public record FacetCount(
+        String value,
+        long books) {
+}
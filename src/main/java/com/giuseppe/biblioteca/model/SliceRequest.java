@@ -0,0 +1,18 @@
+package com.giuseppe.biblioteca.model;
+
+import java.util.List;
+
+/**
+ * Richiesta di una pagina numerata di risultati.
+ *
+ * @param page  il numero di pagina, a partire da 0
+ * @param size  il numero di libri per pagina, limitato lato server
+ * @param sort  i campi di ordinamento (id, title, author, year, genre), con prefisso "-" per l'ordine discendente
+ * @param count true per contare anche il totale dei risultati, con una query aggiuntiva
+ */
+public record SliceRequest(
+        int page,
+        int size,
+        List<String> sort,
+        boolean count) {
+}
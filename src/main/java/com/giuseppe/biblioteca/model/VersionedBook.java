@@ -0,0 +1,13 @@
+package com.giuseppe.biblioteca.model;
+
+/**
+ * Un libro insieme al token della versione da cui è stato letto.
+ * I due valori provengono dalla stessa lettura, così l'ETag descrive sempre esattamente il corpo restituito.
+ *
+ * @param book    il libro
+ * @param version il token di versione del libro
+ */
+public record VersionedBook(
+        BookDTO book,
+        String version) {
+}
@@ -1,23 +1,242 @@
 package com.giuseppe.biblioteca.repository;
 
+import com.giuseppe.biblioteca.model.AuthorCount;
 import com.giuseppe.biblioteca.model.Book;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.FacetCount;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Le letture portano i suggerimenti di sola lettura di Hibernate: le entità caricate non hanno
+ * snapshot per il dirty checking e la query non provoca il flush del persistence context.
+ */
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+    /**
+     * Proiezione che costruisce i BookDTO direttamente dalla query, senza idratare entità gestite.
+     */
+    String SELECT_DTO = "select new com.giuseppe.biblioteca.model.BookDTO(b.id, b.title, b.author, b.anno, b.genre) from Book b";
+
+    /**
+     * Filtri opzionali delle faccette: un parametro null non restringe il risultato.
+     */
+    String FACET_FILTER = " where (:author is null or b.author = :author)"
+            + " and (:genre is null or b.genre = :genre)"
+            + " and (:#{#title == null} = true or upper(b.title) like upper(:#{'%' + escape(#title ?: '') + '%'}) escape :#{escapeCharacter()})"
+            + " and (:before is null or b.anno < :before)";
+
+    /**
+     * Primo anno del decennio, arrotondando per difetto anche gli anni negativi: -5 appartiene al decennio -10.
+     * La divisione intera troncherebbe verso lo zero, mettendo -5 e 5 nello stesso decennio.
+     */
+    String DECADE = "cast(cast(floor(b.anno / 10.0) * 10 as Integer) as String)";
+
+    /**
+     * Ricerca per sottostringa nel titolo, senza distinguere maiuscole e minuscole.
+     */
+    String TITLE_CONTAINS = " where upper(b.title) like upper(:#{'%' + escape(#title) + '%'}) escape :#{escapeCharacter()}";
+
+    /**
+     * Titolo esatto oppure autore per le varianti paginate: l'UNION resta nella sottoquery, così ogni ramo usa
+     * il proprio indice e la query esterna può essere ordinata e limitata come le altre.
+     * Seleziona gli stessi libri di "b.title = :title or b.author = :author".
+     */
+    String TITLE_OR_AUTHOR = " where b.id in (select t.id from Book t where t.title = :title"
+            + " union select a.id from Book a where a.author = :author)";
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
     List<Book> findByAuthor(String author);
 
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
     List<Book> findByGenre(String genre);
 
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
     List<Book> findByTitleContainingIgnoreCase(String title);
 
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
     List<Book> findByAnnoLessThan(int year);
 
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
     int countByAuthor(String author);
 
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
     List<Book> findAllByOrderByAnnoDesc();
 
+    // UNION invece di OR: ogni ramo usa il proprio indice, mentre H2 non combina indici diversi in un OR.
+    // Le righe sono le stesse di "title = :title or author = :author", ognuna una sola volta; come con l'OR,
+    // senza order by l'ordine non è garantito. L'equivalenza è verificata in BookRepositoryQueryPlanTests.
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select b from Book b where b.title = :title union select b from Book b where b.author = :author")
     List<Book> findByTitleOrAuthor(String title, String author);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    Stream<Book> streamAllByOrderByIdAsc();
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select new com.giuseppe.biblioteca.model.AuthorCount(b.author, count(b)) from Book b group by b.author")
+    List<AuthorCount> countGroupByAuthor();
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select distinct b.author from Book b where b.author is not null")
+    List<String> findDistinctAuthors();
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select distinct b.genre from Book b where b.genre is not null")
+    List<String> findDistinctGenres();
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select new com.giuseppe.biblioteca.model.FacetCount(b.genre, count(b)) from Book b" + FACET_FILTER
+            + " group by b.genre order by count(b) desc, b.genre")
+    List<FacetCount> countFacetsByGenre(String author, String genre, String title, Integer before);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select new com.giuseppe.biblioteca.model.FacetCount(b.author, count(b)) from Book b" + FACET_FILTER
+            + " group by b.author order by count(b) desc, b.author")
+    List<FacetCount> countFacetsByAuthor(String author, String genre, String title, Integer before, Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select new com.giuseppe.biblioteca.model.FacetCount(" + DECADE + ", count(b)) from Book b" + FACET_FILTER
+            + " group by " + DECADE + " order by min(b.anno)")
+    List<FacetCount> countFacetsByDecade(String author, String genre, String title, Integer before);
+
+    /**
+     * Colonne restituite dalle DML native che leggono le righe modificate dalla tabella delta OLD TABLE di H2.
+     */
+    String OLD_ROWS = "select id, title, author, anno as \"year\", genre from old table ";
+
+    /**
+     * Applica i soli campi non null con un'unica UPDATE e restituisce la riga com'era prima della modifica
+     * (tabella delta OLD TABLE di H2). Se la versione è indicata aggiorna solo se coincide:
+     * nessuna riga significa che il libro non esiste o che la versione non corrisponde.
+     */
+    @Query(nativeQuery = true, value = OLD_ROWS + "(update book set title = coalesce(:title, title), author = coalesce(:author, author),"
+            + " anno = coalesce(:year, anno), genre = coalesce(:genre, genre), version = version + 1"
+            + " where id = :id and (cast(:version as bigint) is null or version = :version))")
+    Optional<BookDTO> patchReturningPrevious(Long id, Long version, String title, String author, Integer year, String genre);
+
+    /**
+     * Elimina un libro con un'unica DELETE e ne restituisce la riga eliminata. Se la versione è indicata
+     * elimina solo se coincide: nessuna riga significa che il libro non esiste o che la versione non corrisponde.
+     */
+    @Query(nativeQuery = true, value = OLD_ROWS + "(delete from book"
+            + " where id = :id and (cast(:version as bigint) is null or version = :version))")
+    Optional<BookDTO> deleteReturningById(Long id, Long version);
+
+    @Query(nativeQuery = true, value = OLD_ROWS + "(delete from book where id in (:ids))")
+    List<BookDTO> deleteReturningByIdIn(Collection<Long> ids);
+
+    // I cast danno un tipo ai parametri null, che H2 altrimenti non sa determinare in "? is null".
+    @Query(nativeQuery = true, value = OLD_ROWS + "(delete from book"
+            + " where (cast(:author as varchar) is null or author = :author)"
+            + " and (cast(:genre as varchar) is null or genre = :genre)"
+            + " and (cast(:fromYear as int) is null or anno >= :fromYear)"
+            + " and (cast(:toYear as int) is null or anno <= :toYear))")
+    List<BookDTO> deleteReturningMatching(String author, String genre, Integer fromYear, Integer toYear);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query("select b.version from Book b where b.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO)
+    List<BookDTO> findAllDTO();
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.id in :ids order by b.id")
+    List<BookDTO> findDTOByIdIn(Collection<Long> ids);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.id > :id order by b.id")
+    List<BookDTO> findDTOByIdGreaterThan(Long id, Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.author = :author")
+    List<BookDTO> findDTOByAuthor(String author);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.genre = :genre")
+    List<BookDTO> findDTOByGenre(String genre);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + TITLE_CONTAINS)
+    List<BookDTO> findDTOByTitleContainingIgnoreCase(String title);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.anno < :year")
+    List<BookDTO> findDTOByAnnoLessThan(int year);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " order by b.anno desc")
+    List<BookDTO> findAllDTOByOrderByAnnoDesc();
+
+    // L'ordinamento segue quello dell'indice su anno: H2 legge le righe già ordinate e si ferma al limite.
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.anno between :from and :to order by b.anno desc, b.id")
+    List<BookDTO> findDTOByAnnoBetween(int from, int to, Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " order by b.anno desc, b.id")
+    List<BookDTO> findNewestDTO(Limit limit);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.title = :title union " + SELECT_DTO + " where b.author = :author")
+    List<BookDTO> findDTOByTitleOrAuthor(String title, String author);
+
+    // Varianti Slice: leggono un elemento in più della pagina invece di eseguire una query di conteggio.
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.author = :author")
+    Slice<BookDTO> findDTOByAuthor(String author, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.genre = :genre")
+    Slice<BookDTO> findDTOByGenre(String genre, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + TITLE_CONTAINS)
+    Slice<BookDTO> findDTOByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + " where b.anno < :year")
+    Slice<BookDTO> findDTOByAnnoLessThan(int year, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(SELECT_DTO + TITLE_OR_AUTHOR)
+    Slice<BookDTO> findDTOByTitleOrAuthor(String title, String author, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(value = SELECT_DTO + " where b.author = :author", countQuery = "select count(b) from Book b where b.author = :author")
+    Page<BookDTO> findDTOPageByAuthor(String author, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(value = SELECT_DTO + " where b.genre = :genre", countQuery = "select count(b) from Book b where b.genre = :genre")
+    Page<BookDTO> findDTOPageByGenre(String genre, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(value = SELECT_DTO + TITLE_CONTAINS, countQuery = "select count(b) from Book b" + TITLE_CONTAINS)
+    Page<BookDTO> findDTOPageByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(value = SELECT_DTO + " where b.anno < :year", countQuery = "select count(b) from Book b where b.anno < :year")
+    Page<BookDTO> findDTOPageByAnnoLessThan(int year, Pageable pageable);
+
+    @QueryHints({@QueryHint(name = HINT_READ_ONLY, value = "true"), @QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL")})
+    @Query(value = SELECT_DTO + TITLE_OR_AUTHOR, countQuery = "select count(b) from Book b" + TITLE_OR_AUTHOR)
+    Page<BookDTO> findDTOPageByTitleOrAuthor(String title, String author, Pageable pageable);
 }
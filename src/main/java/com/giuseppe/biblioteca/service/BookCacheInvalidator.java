@@ -0,0 +1,91 @@
+package com.giuseppe.biblioteca.service;
+
+import com.giuseppe.biblioteca.config.CacheConfig;
+import com.giuseppe.biblioteca.model.BookDTO;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mantiene coerenti con il catalogo le cache dei libri e delle faccette.
+ * La cache dei libri usa come chiave il solo ID e a ogni modifica perde solo le voci dei libri coinvolti.
+ * Una lettura iniziata prima della modifica potrebbe però salvare il libro superato dopo la rimozione:
+ * per questo ogni ID ha un contatore di generazione, incrementato prima della rimozione, e la lettura
+ * salva il libro solo se la generazione non è cambiata da quando ha iniziato a leggerlo.
+ * I contatori sono condivisi tra gli ID con lo stesso hash, quindi la memoria resta costante:
+ * una collisione fa al più saltare un salvataggio, mai servire un libro superato.
+ * Le faccette dipendono dall'intero catalogo e vengono svuotate del tutto.
+ */
+@Component
+public class BookCacheInvalidator {
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final ConcurrentMap<Object, Object> books;
+
+    private final Cache facetsCache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * Recupera le cache dei libri e delle faccette dal cache manager.
+     *
+     * @param cacheManager il cache manager dell'applicazione
+     */
+    public BookCacheInvalidator(CacheManager cacheManager) {
+        this.books = ((CaffeineCache) cacheManager.getCache(CacheConfig.BOOKS_CACHE)).getNativeCache().asMap();
+        this.facetsCache = cacheManager.getCache(CacheConfig.FACETS_CACHE);
+    }
+
+    /**
+     * Restituisce la generazione corrente di un libro, da leggere prima di caricarlo dal database.
+     *
+     * @param id l'ID del libro
+     * @return la generazione da passare a {@link #putIfCurrent(Long, long, Object)}
+     */
+    public long generation(Long id) {
+        return generations.get(stripe(id));
+    }
+
+    /**
+     * Salva un libro in cache solo se nel frattempo non è stato modificato.
+     * Il controllo avviene dentro compute, che per la stessa chiave è serializzato con la rimozione:
+     * una modifica che incrementa la generazione dopo il controllo rimuove comunque la voce appena salvata.
+     *
+     * @param id         l'ID del libro
+     * @param generation la generazione letta prima di caricare il libro
+     * @param book       il libro da salvare
+     */
+    public void putIfCurrent(Long id, long generation, Object book) {
+        books.compute(id, (key, cached) -> generations.get(stripe(id)) == generation ? book : cached);
+    }
+
+    /**
+     * Rimuove dalla cache i libri modificati e svuota le faccette.
+     *
+     * @param event l'evento di modifica del catalogo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        evict(event.removed());
+        evict(event.added());
+        facetsCache.clear();
+    }
+
+    private void evict(List<BookDTO> changed) {
+        for (BookDTO book : changed) {
+            generations.incrementAndGet(stripe(book.id()));
+            books.remove(book.id());
+        }
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (GENERATION_STRIPES - 1);
+    }
+}
@@ -1,12 +1,56 @@
 package com.giuseppe.biblioteca.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.giuseppe.biblioteca.config.CacheConfig;
+import com.giuseppe.biblioteca.index.AuthorCounters;
+import com.giuseppe.biblioteca.index.NegativeLookupFilter;
+import com.giuseppe.biblioteca.index.TitleTrigramIndex;
 import com.giuseppe.biblioteca.model.Book;
 import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookFacets;
+import com.giuseppe.biblioteca.model.FacetCount;
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.model.BookPatchDTO;
+import com.giuseppe.biblioteca.model.BookSlice;
+import com.giuseppe.biblioteca.model.BulkInsertReport;
+import com.giuseppe.biblioteca.model.SliceRequest;
+import com.giuseppe.biblioteca.model.VersionedBook;
 import com.giuseppe.biblioteca.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementazione dell'interfaccia IBookService.
@@ -15,15 +59,96 @@ import java.util.stream.Collectors;
 @Service
 public class BookServiceImpl implements IBookService {
 
+    private static final Logger log = LoggerFactory.getLogger(BookServiceImpl.class);
+
+    /**
+     * Ogni quante righe esportate viene svuotato il buffer verso il client.
+     */
+    private static final int EXPORT_FLUSH_INTERVAL = 1000;
+
+    /**
+     * Campi ordinabili nelle ricerche paginate, dal nome esposto dall'API alla proprietà dell'entità.
+     */
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "id", "id", "title", "title", "author", "author", "year", "anno", "genre", "genre");
+
     private BookRepository bookRepository;
 
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final TitleTrigramIndex titleIndex;
+
+    private final AuthorCounters authorCounters;
+
+    private final NegativeLookupFilter negativeLookup;
+
+    private final CatalogVersion catalogVersion;
+
+    private final Cache booksCache;
+
+    private final Cache facetsCache;
+
+    private final BookCacheInvalidator cacheInvalidator;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxPageSize;
+
+    private final int bulkChunkSize;
+
+    private final int facetAuthorLimit;
+
     /**
-     * Inietta il repository dei libri.
+     * Inietta il repository dei libri e le dipendenze necessarie all'export e alle ricerche.
      *
      * @param bookRepository il repository da usare
+     * @param entityManager  l'entity manager da cui staccare le entità esportate
+     * @param objectMapper   il mapper JSON usato per l'export
+     * @param titleIndex     l'indice a trigrammi usato per la ricerca per titolo
+     * @param authorCounters i contatori materializzati dei libri per autore
+     * @param negativeLookup i filtri di Bloom degli autori e dei generi presenti
+     * @param catalogVersion il contatore delle modifiche al catalogo
+     * @param cacheManager   il cache manager da cui ottenere le cache dei libri letti per ID e delle faccette
+     * @param cacheInvalidator le generazioni che impediscono di salvare in cache un libro già modificato
+     * @param eventPublisher il publisher degli eventi di modifica del catalogo
+     * @param transactionTemplate il template usato per le transazioni dei blocchi di inserimento
+     * @param maxPageSize    la dimensione massima di una pagina
+     * @param bulkChunkSize  il numero di libri inseriti in ogni blocco
+     * @param facetAuthorLimit il numero massimo di autori restituiti nelle faccette
      */
-    public BookServiceImpl(BookRepository bookRepository) {
+    public BookServiceImpl(BookRepository bookRepository,
+                           EntityManager entityManager,
+                           ObjectMapper objectMapper,
+                           TitleTrigramIndex titleIndex,
+                           AuthorCounters authorCounters,
+                           NegativeLookupFilter negativeLookup,
+                           CatalogVersion catalogVersion,
+                           CacheManager cacheManager,
+                           BookCacheInvalidator cacheInvalidator,
+                           ApplicationEventPublisher eventPublisher,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${biblioteca.pagination.max-size:100}") int maxPageSize,
+                           @Value("${biblioteca.bulk.chunk-size:500}") int bulkChunkSize,
+                           @Value("${biblioteca.facets.author-limit:50}") int facetAuthorLimit) {
         this.bookRepository = bookRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.titleIndex = titleIndex;
+        this.authorCounters = authorCounters;
+        this.negativeLookup = negativeLookup;
+        this.catalogVersion = catalogVersion;
+        this.booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        this.facetsCache = cacheManager.getCache(CacheConfig.FACETS_CACHE);
+        this.cacheInvalidator = cacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.maxPageSize = maxPageSize;
+        this.bulkChunkSize = bulkChunkSize;
+        this.facetAuthorLimit = facetAuthorLimit;
     }
 
     /**
@@ -32,7 +157,7 @@ public class BookServiceImpl implements IBookService {
      * @param bookEntity l'entità Book da convertire
      * @return il BookDTO risultante
      */
-    private BookDTO toDTO(Book bookEntity) {
+    static BookDTO toDTO(Book bookEntity) {
         return new BookDTO(
                 bookEntity.getId(),
                 bookEntity.getTitle(),
@@ -48,7 +173,7 @@ public class BookServiceImpl implements IBookService {
      * @param bookDTO il DTO da convertire
      * @return l'entità Book risultante
      */
-    private Book toEntity(BookDTO bookDTO) {
+    static Book toEntity(BookDTO bookDTO) {
         return new Book(
                 bookDTO.id(),
                 bookDTO.title(),
@@ -59,82 +184,496 @@ public class BookServiceImpl implements IBookService {
     }
 
     @Override
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(this::toDTO).collect(Collectors.toList());
+        return bookRepository.findAllDTO();
     }
 
     @Override
-    public BookDTO getBookById(Long id) {
-        return bookRepository.findById(id).map(this::toDTO).orElseThrow();
+    @Coalesced
+    @Transactional(readOnly = true)
+    public BookPage getBooksPage(String cursor, int size) {
+        if (size < 1)
+            throw new InvalidRequestException("La dimensione della pagina deve essere positiva.");
+
+        int limit = Math.min(size, maxPageSize);
+        long afterId = cursor == null ? 0L : decodeCursor(cursor);
+
+        // Se ne chiede uno in più per sapere se esiste una pagina successiva senza fare un count.
+        List<BookDTO> books = bookRepository.findDTOByIdGreaterThan(afterId, Limit.of(limit + 1));
+        if (books.size() <= limit)
+            return new BookPage(books, null);
+
+        List<BookDTO> content = books.subList(0, limit);
+        return new BookPage(content, encodeCursor(content.get(limit - 1).id()));
+    }
+
+    /**
+     * Codifica l'ID dell'ultimo libro di una pagina in un cursore opaco.
+     *
+     * @param lastId l'ID dell'ultimo libro restituito
+     * @return il cursore in Base64 URL-safe
+     */
+    static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodifica un cursore opaco nell'ID da cui riprendere la lettura.
+     *
+     * @param cursor il cursore ricevuto dal client
+     * @return l'ID dell'ultimo libro già restituito
+     * @throws IllegalArgumentException se il cursore non è valido
+     */
+    static long decodeCursor(String cursor) {
+        long id;
+        try {
+            id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidRequestException("Cursore non valido.");
+        }
+        if (id < 0)
+            throw new InvalidRequestException("Cursore non valido.");
+        return id;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(BookDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (Stream<Book> books = bookRepository.streamAllByOrderByIdAsc();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Il separatore di riga viene scritto esplicitamente dopo ogni libro.
+            generator.setRootValueSeparator(null);
+
+            int written = 0;
+            Iterator<Book> iterator = books.iterator();
+            while (iterator.hasNext()) {
+                Book book = iterator.next();
+                writer.writeValue(generator, toDTO(book));
+                generator.writeRaw('\n');
+                // Stacca l'entità dal persistence context, così la memoria resta costante.
+                entityManager.detach(book);
+
+                if (++written % EXPORT_FLUSH_INTERVAL == 0)
+                    generator.flush();
+            }
+            generator.flush();
+        }
+    }
+
+    /**
+     * Condivide la cache di {@link #getVersionedBook(Long)}: il libro e la sua versione vengono letti insieme,
+     * così una sola voce per ID serve sia le letture semplici sia quelle con ETag.
+     */
+    @Override
+    @Coalesced
+    public Optional<BookDTO> getBookById(Long id) {
+        return getVersionedBook(id).map(VersionedBook::book);
+    }
+
+    @Override
+    public String getCatalogVersion() {
+        return catalogVersion.current();
+    }
+
+    /**
+     * La cache usa come chiave l'ID del libro. La generazione dell'ID viene letta prima del libro e il salvataggio
+     * avviene solo se nel frattempo nessuna modifica l'ha cambiata (vedi {@link BookCacheInvalidator}):
+     * una lettura iniziata prima di un aggiornamento non può rimettere in cache la versione superata.
+     * Senza transazione: in caso di hit non serve una connessione, la lettura usa quella del repository.
+     */
+    @Override
+    @Coalesced
+    public Optional<VersionedBook> getVersionedBook(Long id) {
+        VersionedBook cached = booksCache.get(id, VersionedBook.class);
+        if (cached != null)
+            return Optional.of(cached);
+
+        long generation = cacheInvalidator.generation(id);
+        Optional<VersionedBook> loaded = bookRepository.findById(id)
+                .map(book -> new VersionedBook(toDTO(book), catalogVersion.token(book.getVersion())));
+        loaded.ifPresent(book -> cacheInvalidator.putIfCurrent(id, generation, book));
+        return loaded;
+    }
+
+    @Override
+    @Transactional
     public BookDTO createBook(BookDTO bookDTO) {
-        return toDTO(bookRepository.save(
+        BookDTO created = toDTO(bookRepository.save(
                 toEntity(bookDTO)
         ));
+        eventPublisher.publishEvent(CatalogChangeEvent.created(created));
+        return created;
     }
 
     @Override
-    public BookDTO updateBook(Long id, BookDTO bookDTO) {
-        Book book = bookRepository.findById(id).orElseThrow();
+    public BulkInsertReport createBooks(Iterator<BookDTO> books) {
+        long start = System.nanoTime();
+        List<BulkInsertReport.ChunkReport> chunks = new ArrayList<>();
+        int inserted = 0;
+
+        while (books.hasNext()) {
+            List<Book> chunk = new ArrayList<>(bulkChunkSize);
+            while (books.hasNext() && chunk.size() < bulkChunkSize) {
+                BookDTO bookDTO = books.next();
+                if (bookDTO.id() != null)
+                    throw new InvalidRequestException("Non includere campo id, ci pensa il database");
+                chunk.add(toEntity(bookDTO));
+            }
+
+            long chunkStart = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> {
+                List<BookDTO> created = bookRepository.saveAll(chunk).stream()
+                        .map(BookServiceImpl::toDTO).collect(Collectors.toList());
+                // Il flush invia gli INSERT in batch; il clear evita che il persistence context cresca.
+                entityManager.flush();
+                entityManager.clear();
+                eventPublisher.publishEvent(new CatalogChangeEvent(List.of(), created));
+            });
+            long chunkNanos = System.nanoTime() - chunkStart;
+
+            BulkInsertReport.ChunkReport report = new BulkInsertReport.ChunkReport(
+                    chunks.size(), chunk.size(), chunkNanos / 1_000_000,
+                    chunk.size() * 1_000_000_000.0 / Math.max(chunkNanos, 1));
+            chunks.add(report);
+            inserted += chunk.size();
+            log.debug("Blocco {} inserito: {} libri in {} ms ({} righe/s)",
+                    report.chunk(), report.size(), report.millis(), Math.round(report.rowsPerSecond()));
+        }
+
+        long totalMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Inserimento massivo completato: {} libri in {} blocchi, {} ms", inserted, chunks.size(), totalMillis);
+        return new BulkInsertReport(inserted, totalMillis, chunks);
+    }
+
+    @Override
+    @Transactional
+    public Optional<BookDTO> updateBook(Long id, BookDTO bookDTO) {
+        return updateBook(id, bookDTO, null);
+    }
+
+    /**
+     * Il controllo esplicito copre le modifiche già confermate; quelle confermate tra la lettura e il commit
+     * vengono intercettate da Hibernate tramite la colonna version nella clausola WHERE dell'UPDATE.
+     */
+    @Override
+    @Transactional
+    public Optional<BookDTO> updateBook(Long id, BookDTO bookDTO, String expectedVersion) {
+        Optional<Book> found = bookRepository.findById(id);
+        if (found.isEmpty())
+            return Optional.empty();
+        Book book = found.get();
+        Long expected = expectedVersion(expectedVersion);
+        if (expected != null && expected != book.getVersion())
+            throw new OptimisticLockingFailureException("Versione del libro " + id + " non corrispondente");
+        BookDTO before = toDTO(book);
 
         book.setTitle(bookDTO.title());
         book.setAuthor(bookDTO.author());
         book.setAnno(bookDTO.year());
         book.setGenre(bookDTO.genre());
 
-        return toDTO(bookRepository.save(book));
+        BookDTO updated = toDTO(bookRepository.save(book));
+        eventPublisher.publishEvent(CatalogChangeEvent.updated(before, updated));
+        return Optional.of(updated);
     }
 
     @Override
-    public boolean deleteBook(Long id) {
-        if (bookRepository.findById(id).isPresent()) {
-            bookRepository.deleteById(id);
-            return true;
+    @Transactional
+    public Optional<BookDTO> patchBook(Long id, BookPatchDTO patch) {
+        return patchBook(id, patch, null);
+    }
+
+    @Override
+    @Transactional
+    public Optional<BookDTO> patchBook(Long id, BookPatchDTO patch, String expectedVersion) {
+        Optional<BookDTO> before = bookRepository.patchReturningPrevious(id, expectedVersion(expectedVersion),
+                patch.title(), patch.author(), patch.year(), patch.genre());
+        if (before.isEmpty()) {
+            if (expectedVersion != null)
+                checkConflict(id);
+            return Optional.empty();
         }
-        return false;
+        BookDTO patched = patch.applyTo(before.get());
+        eventPublisher.publishEvent(CatalogChangeEvent.updated(before.get(), patched));
+        return Optional.of(patched);
     }
 
     @Override
+    @Transactional
+    public boolean deleteBook(Long id) {
+        return deleteBook(id, null);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteBook(Long id, String expectedVersion) {
+        Optional<BookDTO> deleted = bookRepository.deleteReturningById(id, expectedVersion(expectedVersion));
+        if (deleted.isEmpty() && expectedVersion != null)
+            checkConflict(id);
+        deleted.ifPresent(book -> eventPublisher.publishEvent(CatalogChangeEvent.deleted(book)));
+        return deleted.isPresent();
+    }
+
+    /**
+     * Traduce il token atteso nel numero di versione. Un token non emesso da questa istanza
+     * non può corrispondere a nessuna versione, quindi la precondizione fallisce subito.
+     */
+    private Long expectedVersion(String token) {
+        if (token == null)
+            return null;
+        OptionalLong version = catalogVersion.parse(token);
+        if (version.isEmpty())
+            throw new OptimisticLockingFailureException("Token di versione non valido: " + token);
+        return version.getAsLong();
+    }
+
+    /**
+     * Distingue, solo dopo una DML condizionale che non ha toccato righe, tra libro inesistente e versione superata:
+     * nel primo caso non fa nulla, nel secondo segnala il conflitto.
+     */
+    private void checkConflict(Long id) {
+        if (bookRepository.findVersionById(id).isPresent())
+            throw new OptimisticLockingFailureException("Versione del libro " + id + " non corrispondente");
+    }
+
+    @Override
+    @Transactional
+    public int deleteBooks(Collection<Long> ids) {
+        if (ids.isEmpty())
+            return 0;
+        return publishDeleted(bookRepository.deleteReturningByIdIn(ids));
+    }
+
+    @Override
+    @Transactional
+    public int deleteBooksMatching(String author, String genre, Integer fromYear, Integer toYear) {
+        if (author == null && genre == null && fromYear == null && toYear == null)
+            throw new InvalidRequestException("Specificare almeno un filtro per l'eliminazione.");
+        return publishDeleted(bookRepository.deleteReturningMatching(author, genre, fromYear, toYear));
+    }
+
+    private int publishDeleted(List<BookDTO> deleted) {
+        if (!deleted.isEmpty())
+            eventPublisher.publishEvent(CatalogChangeEvent.deleted(deleted));
+        return deleted.size();
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<BookDTO> findBooksByAuthor(String author) {
-        return bookRepository.findByAuthor(author).stream()
-                .map(this::toDTO).collect(Collectors.toList());
+        return bookRepository.findDTOByAuthor(author);
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public BookSlice findBooksByAuthor(String author, SliceRequest request) {
+        Pageable pageable = pageable(request);
+        return request.count()
+                ? page(bookRepository.findDTOPageByAuthor(author, pageable))
+                : slice(bookRepository.findDTOByAuthor(author, pageable));
     }
 
     @Override
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<BookDTO> findBooksByGenre(String genre) {
-        return bookRepository.findByGenre(genre).stream()
-                .map(this::toDTO).collect(Collectors.toList());
+        return bookRepository.findDTOByGenre(genre);
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public BookSlice findBooksByGenre(String genre, SliceRequest request) {
+        Pageable pageable = pageable(request);
+        return request.count()
+                ? page(bookRepository.findDTOPageByGenre(genre, pageable))
+                : slice(bookRepository.findDTOByGenre(genre, pageable));
+    }
+
+    /**
+     * Senza transazione: la risposta arriva dai filtri in memoria.
+     */
+    @Override
+    public boolean mayHaveBooksByAuthor(String author) {
+        return negativeLookup.mightContainAuthor(author);
     }
 
     @Override
+    public boolean mayHaveBooksByGenre(String genre) {
+        return negativeLookup.mightContainGenre(genre);
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<BookDTO> searchBooksByTitle(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title).stream()
-                .map(this::toDTO).collect(Collectors.toList());
+        Optional<List<Long>> candidates = titleIndex.search(title);
+        if (candidates.isEmpty())
+            return bookRepository.findDTOByTitleContainingIgnoreCase(title);
+
+        // I candidati dell'indice non sono verificati e l'indice può essere di poco indietro rispetto al database:
+        // la sottostringa si controlla sui titoli delle righe lette.
+        String normalized = TitleTrigramIndex.normalize(title);
+        return bookRepository.findDTOByIdIn(candidates.get()).stream()
+                .filter(book -> book.title() != null && TitleTrigramIndex.normalize(book.title()).contains(normalized))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Le pagine vengono lette dal database: i candidati dell'indice a trigrammi vanno riverificati
+     * sulle righe lette, per cui non permetterebbero di sapere quali libri cadono in una pagina.
+     */
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public BookSlice searchBooksByTitle(String title, SliceRequest request) {
+        Pageable pageable = pageable(request);
+        return request.count()
+                ? page(bookRepository.findDTOPageByTitleContainingIgnoreCase(title, pageable))
+                : slice(bookRepository.findDTOByTitleContainingIgnoreCase(title, pageable));
     }
 
     @Override
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<BookDTO> findBooksByAnnoLessThan(int year) {
-        return bookRepository.findByAnnoLessThan(year).stream()
-                .map(this::toDTO).collect(Collectors.toList());
+        return bookRepository.findDTOByAnnoLessThan(year);
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public BookSlice findBooksByAnnoLessThan(int year, SliceRequest request) {
+        Pageable pageable = pageable(request);
+        return request.count()
+                ? page(bookRepository.findDTOPageByAnnoLessThan(year, pageable))
+                : slice(bookRepository.findDTOByAnnoLessThan(year, pageable));
     }
 
+    /**
+     * Senza transazione: a regime il conteggio arriva dai contatori in memoria e aprirne una
+     * occuperebbe una connessione per nulla; la query di ripiego usa quella di sola lettura del repository.
+     */
     @Override
     public int countBooksByAuthor(String author) {
-        return bookRepository.countByAuthor(author);
+        if (!authorCounters.isReady())
+            return bookRepository.countByAuthor(author);
+        return (int) authorCounters.count(author);
     }
 
     @Override
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<BookDTO> getBooksSortedByAnnoDesc() {
-        return bookRepository.findAllByOrderByAnnoDesc().stream()
-                .map(this::toDTO).collect(Collectors.toList());
+        return bookRepository.findAllDTOByOrderByAnnoDesc();
     }
 
     @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<BookDTO> findBooksByAnnoBetween(int from, int to, Integer limit) {
+        if (from > to)
+            throw new InvalidRequestException("L'anno iniziale non può essere successivo a quello finale.");
+        return bookRepository.findDTOByAnnoBetween(from, to, limit == null ? Limit.unlimited() : limit(limit));
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public List<BookDTO> getNewestBooks(int limit) {
+        return bookRepository.findNewestDTO(limit(limit));
+    }
+
+    private Limit limit(int requested) {
+        if (requested < 1)
+            throw new InvalidRequestException("Il numero di libri richiesti deve essere positivo.");
+        return Limit.of(Math.min(requested, maxPageSize));
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
     public List<BookDTO> findBooksByTitleOrAuthor(String title, String author) {
-        return bookRepository.findByTitleOrAuthor(title, author).stream()
-                .map(this::toDTO).collect(Collectors.toList());
+        return bookRepository.findDTOByTitleOrAuthor(title, author);
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public BookSlice findBooksByTitleOrAuthor(String title, String author, SliceRequest request) {
+        Pageable pageable = pageable(request);
+        return request.count()
+                ? page(bookRepository.findDTOPageByTitleOrAuthor(title, author, pageable))
+                : slice(bookRepository.findDTOByTitleOrAuthor(title, author, pageable));
+    }
+
+    /**
+     * Traduce la richiesta di pagina in un Pageable, limitandone la dimensione e validando l'ordinamento.
+     * L'ID viene sempre aggiunto come ultimo criterio: con un ordine solo parziale i libri con lo stesso
+     * valore potrebbero comparire in due pagine o in nessuna.
+     *
+     * @param request la pagina richiesta
+     * @return il Pageable da passare al repository
+     * @throws IllegalArgumentException se la pagina, la dimensione o un campo di ordinamento non sono validi
+     */
+    private Pageable pageable(SliceRequest request) {
+        if (request.page() < 0)
+            throw new InvalidRequestException("Il numero di pagina non può essere negativo.");
+        if (request.size() < 1)
+            throw new InvalidRequestException("La dimensione della pagina deve essere positiva.");
+
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String field : request.sort()) {
+            boolean descending = field.startsWith("-");
+            String property = SORTABLE_FIELDS.get(descending ? field.substring(1) : field);
+            if (property == null)
+                throw new InvalidRequestException("Campo di ordinamento non valido: " + field);
+            orders.add(descending ? Sort.Order.desc(property) : Sort.Order.asc(property));
+        }
+        if (orders.stream().noneMatch(order -> order.getProperty().equals("id")))
+            orders.add(Sort.Order.asc("id"));
+        return PageRequest.of(request.page(), Math.min(request.size(), maxPageSize), Sort.by(orders));
+    }
+
+    private static BookSlice slice(Slice<BookDTO> slice) {
+        return new BookSlice(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), null, null);
+    }
+
+    private static BookSlice page(Page<BookDTO> page) {
+        return new BookSlice(page.getContent(), page.getNumber(), page.getSize(), page.hasNext(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+
+    /**
+     * La chiave include la versione del catalogo, letta prima dei conteggi: una lettura iniziata prima di una modifica
+     * può salvare il proprio risultato dopo lo svuotamento della cache, ma con una chiave che non verrà più cercata.
+     * Con @Cacheable la chiave verrebbe ricalcolata dopo la lettura, e quindi con la versione nuova.
+     */
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public BookFacets getFacets(String author, String genre, String title, Integer before) {
+        List<Object> key = Arrays.asList(catalogVersion.current(), author, genre, title, before);
+        BookFacets cached = facetsCache.get(key, BookFacets.class);
+        if (cached != null)
+            return cached;
+
+        List<FacetCount> genres = bookRepository.countFacetsByGenre(author, genre, title, before);
+        long total = genres.stream().mapToLong(FacetCount::books).sum();
+        BookFacets facets = new BookFacets(total,
+                genres,
+                bookRepository.countFacetsByAuthor(author, genre, title, before, Limit.of(facetAuthorLimit)),
+                bookRepository.countFacetsByDecade(author, genre, title, before));
+        facetsCache.put(key, facets);
+        return facets;
     }
 }
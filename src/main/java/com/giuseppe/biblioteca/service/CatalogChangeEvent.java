@@ -0,0 +1,59 @@
+package com.giuseppe.biblioteca.service;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+
+import java.util.List;
+
+/**
+ * Evento pubblicato dal servizio quando il catalogo cambia.
+ * Un aggiornamento è rappresentato come la rimozione della versione precedente e l'aggiunta di quella nuova,
+ * così le strutture derivate (indici, contatori) possono gestire ogni modifica allo stesso modo.
+ *
+ * @param removed i libri rimossi o la loro versione precedente all'aggiornamento
+ * @param added   i libri aggiunti o la loro versione successiva all'aggiornamento
+ */
+public record CatalogChangeEvent(
+        List<BookDTO> removed,
+        List<BookDTO> added) {
+
+    /**
+     * Crea l'evento per un libro appena inserito.
+     *
+     * @param created il libro creato
+     * @return l'evento corrispondente
+     */
+    public static CatalogChangeEvent created(BookDTO created) {
+        return new CatalogChangeEvent(List.of(), List.of(created));
+    }
+
+    /**
+     * Crea l'evento per un libro aggiornato.
+     *
+     * @param before il libro prima dell'aggiornamento
+     * @param after  il libro dopo l'aggiornamento
+     * @return l'evento corrispondente
+     */
+    public static CatalogChangeEvent updated(BookDTO before, BookDTO after) {
+        return new CatalogChangeEvent(List.of(before), List.of(after));
+    }
+
+    /**
+     * Crea l'evento per un libro eliminato.
+     *
+     * @param deleted il libro eliminato
+     * @return l'evento corrispondente
+     */
+    public static CatalogChangeEvent deleted(BookDTO deleted) {
+        return new CatalogChangeEvent(List.of(deleted), List.of());
+    }
+
+    /**
+     * Crea l'evento per un gruppo di libri eliminati con un'unica operazione.
+     *
+     * @param deleted i libri eliminati
+     * @return l'evento corrispondente
+     */
+    public static CatalogChangeEvent deleted(List<BookDTO> deleted) {
+        return new CatalogChangeEvent(List.copyOf(deleted), List.of());
+    }
+}
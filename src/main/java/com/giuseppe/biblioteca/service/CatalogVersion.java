@@ -0,0 +1,67 @@
+package com.giuseppe.biblioteca.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contatore delle modifiche all'intero catalogo, usato per validare le risposte condizionali
+ * senza rileggere né serializzare i dati.
+ * Il database è in memoria e riparte vuoto a ogni riavvio, quindi ogni token include un'epoca
+ * generata all'avvio: così un token emesso prima di un riavvio non coincide mai con uno nuovo.
+ */
+@Component
+public class CatalogVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Incrementa il contatore dopo il commit di ogni modifica al catalogo.
+     *
+     * @param event l'evento di modifica
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChange(CatalogChangeEvent event) {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Restituisce il token che identifica lo stato corrente del catalogo.
+     *
+     * @return il token di versione del catalogo
+     */
+    public String current() {
+        return token(changes.get());
+    }
+
+    /**
+     * Combina un numero di versione con l'epoca di questa istanza.
+     *
+     * @param version il numero di versione
+     * @return il token di versione
+     */
+    public String token(long version) {
+        return epoch + "-" + version;
+    }
+
+    /**
+     * Estrae il numero di versione da un token emesso da questa istanza.
+     *
+     * @param token il token di versione
+     * @return il numero di versione, oppure vuoto se il token è malformato o appartiene a un'altra epoca
+     */
+    public OptionalLong parse(String token) {
+        String prefix = epoch + "-";
+        if (!token.startsWith(prefix))
+            return OptionalLong.empty();
+        try {
+            return OptionalLong.of(Long.parseLong(token.substring(prefix.length())));
+        } catch (NumberFormatException nfex) {
+            return OptionalLong.empty();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.giuseppe.biblioteca.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiene traccia delle modifiche al catalogo il cui evento non è ancora stato applicato alle strutture in memoria.
+ * Ogni modifica apre un ticket prima del commit e lo chiude dopo aver applicato il proprio evento; chi ricostruisce
+ * una struttura dalla tabella può così attendere che le modifiche già confermate al momento della lettura siano
+ * state applicate, senza fermare le scritture: i ticket aperti dopo non vengono attesi.
+ */
+@Component
+public class CatalogWriteTracker {
+
+    private final Object monitor = new Object();
+
+    private final NavigableSet<Long> open = new TreeSet<>();
+
+    private long lastIssued;
+
+    /**
+     * Esegue l'azione dopo il commit della transazione corrente, aprendo un ticket che resta aperto
+     * fino alla fine dell'azione. Se la transazione viene annullata l'azione non viene eseguita.
+     * Senza transazione attiva la modifica è già confermata e l'azione viene eseguita subito:
+     * in quel caso è chi scrive che deve aprire il ticket prima della scrittura, con {@link #open()}.
+     *
+     * @param action l'azione da eseguire dopo il commit
+     */
+    public void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            action.run();
+            return;
+        }
+        // Un unico ticket per transazione, aperto al primo evento e quindi prima del commit.
+        PendingCommit pending = (PendingCommit) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingCommit(open());
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.actions.add(action);
+    }
+
+    /**
+     * Apre un ticket per una modifica che sta per essere scritta.
+     *
+     * @return il ticket, da chiudere con {@link #close(long)} dopo aver pubblicato l'evento
+     */
+    public long open() {
+        synchronized (monitor) {
+            open.add(++lastIssued);
+            return lastIssued;
+        }
+    }
+
+    /**
+     * Chiude il ticket di una modifica il cui evento è stato applicato, o che non è andata a buon fine.
+     *
+     * @param ticket il ticket restituito da {@link #open()}
+     */
+    public void close(long ticket) {
+        synchronized (monitor) {
+            if (open.remove(ticket))
+                monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Restituisce l'ultimo ticket aperto. Va letto dopo la lettura della tabella: ogni modifica confermata
+     * prima della lettura ha aperto il proprio ticket prima del commit, quindi ha un numero non superiore.
+     *
+     * @return l'ultimo ticket aperto, 0 se non ne è stato aperto nessuno
+     */
+    public long lastIssued() {
+        synchronized (monitor) {
+            return lastIssued;
+        }
+    }
+
+    /**
+     * Attende che tutti i ticket fino a quello indicato siano chiusi, per al massimo il tempo indicato.
+     *
+     * @param ticket  l'ultimo ticket da attendere
+     * @param timeout l'attesa massima
+     * @return true se i ticket sono stati chiusi, false se il tempo è scaduto o il thread è stato interrotto
+     */
+    public boolean awaitClosed(long ticket, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (monitor) {
+            while (!open.isEmpty() && open.first() <= ticket) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    return false;
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+                } catch (InterruptedException iex) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Le azioni registrate da una transazione, eseguite dopo il suo commit prima di chiuderne il ticket.
+     */
+    private final class PendingCommit implements TransactionSynchronization {
+
+        private final long ticket;
+
+        private final List<Runnable> actions = new ArrayList<>();
+
+        private PendingCommit(long ticket) {
+            this.ticket = ticket;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CatalogWriteTracker.this);
+            try {
+                if (status == STATUS_COMMITTED)
+                    actions.forEach(Runnable::run);
+            } finally {
+                close(ticket);
+            }
+        }
+    }
+}
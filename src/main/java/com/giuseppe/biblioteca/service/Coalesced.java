@@ -0,0 +1,18 @@
+package com.giuseppe.biblioteca.service;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca una lettura del servizio le cui chiamate identiche e concorrenti possono condividere
+ * un'unica esecuzione: vedi {@link SingleFlightAspect}.
+ * Va usata solo su metodi senza effetti collaterali il cui risultato non viene modificato dai chiamanti.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
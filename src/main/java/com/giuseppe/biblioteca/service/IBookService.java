@@ -1,12 +1,25 @@
 package com.giuseppe.biblioteca.service;
 
 import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookFacets;
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.model.BookPatchDTO;
+import com.giuseppe.biblioteca.model.BookSlice;
+import com.giuseppe.biblioteca.model.BulkInsertReport;
+import com.giuseppe.biblioteca.model.SliceRequest;
+import com.giuseppe.biblioteca.model.VersionedBook;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Definisce il contratto per la gestione dei libri.
  * Espone metodi per operazioni CRUD, ricerche e ordinamenti.
+ * Le letture che interrogano il database avvengono in un'unica transazione di sola lettura per chiamata.
  */
 public interface IBookService {
 
@@ -17,13 +30,49 @@ public interface IBookService {
      */
     List<BookDTO> getAllBooks();
 
+    /**
+     * Recupera una pagina di libri usando la paginazione a cursore sull'ID.
+     * La dimensione richiesta viene limitata al massimo consentito dalla configurazione.
+     *
+     * @param cursor il cursore opaco restituito dalla pagina precedente, null per la prima pagina
+     * @param size il numero di libri richiesti
+     * @return la pagina di BookDTO con l'eventuale cursore successivo
+     * @throws IllegalArgumentException se il cursore non è valido o la dimensione non è positiva
+     */
+    BookPage getBooksPage(String cursor, int size);
+
+    /**
+     * Esporta l'intero catalogo in formato NDJSON (un BookDTO JSON per riga).
+     * I libri vengono letti e scritti uno alla volta, senza accumularli in memoria.
+     *
+     * @param out lo stream su cui scrivere l'export
+     * @throws IOException se la scrittura sullo stream fallisce
+     */
+    void exportBooks(OutputStream out) throws IOException;
+
     /**
      * Recupera un libro dato il suo ID.
      *
      * @param id l'ID del libro
-     * @return il BookDTO corrispondente
+     * @return il BookDTO corrispondente, oppure vuoto se il libro non esiste
+     */
+    Optional<BookDTO> getBookById(Long id);
+
+    /**
+     * Restituisce il token che identifica lo stato corrente dell'intero catalogo.
+     * Cambia a ogni creazione, modifica o eliminazione e si ottiene senza interrogare il database.
+     *
+     * @return il token di versione del catalogo
      */
-    BookDTO getBookById(Long id);
+    String getCatalogVersion();
+
+    /**
+     * Recupera un libro insieme al token della sua versione, da usare come ETag.
+     *
+     * @param id l'ID del libro
+     * @return il libro con la sua versione, oppure vuoto se il libro non esiste
+     */
+    Optional<VersionedBook> getVersionedBook(Long id);
 
     /**
      * Crea un nuovo libro.
@@ -33,14 +82,56 @@ public interface IBookService {
      */
     BookDTO createBook(BookDTO bookDTO);
 
+    /**
+     * Crea più libri in blocchi, ognuno inserito in una propria transazione con batch JDBC.
+     * I libri vengono consumati dall'iteratore man mano, senza caricarli tutti in memoria;
+     * in caso di errore i blocchi già completati restano salvati.
+     *
+     * @param books i BookDTO da creare; il campo id deve essere null
+     * @return il report con il throughput di ogni blocco
+     * @throws IllegalArgumentException se un libro contiene già un id
+     */
+    BulkInsertReport createBooks(Iterator<BookDTO> books);
+
     /**
      * Aggiorna i dati di un libro esistente.
      *
      * @param id l'ID del libro da aggiornare
      * @param bookDTO il BookDTO con i nuovi dati
-     * @return il BookDTO aggiornato
+     * @return il BookDTO aggiornato, oppure vuoto se il libro non esiste
      */
-    BookDTO updateBook(Long id, BookDTO bookDTO);
+    Optional<BookDTO> updateBook(Long id, BookDTO bookDTO);
+
+    /**
+     * Aggiorna i dati di un libro esistente solo se la sua versione corrisponde a quella attesa.
+     *
+     * @param id l'ID del libro da aggiornare
+     * @param bookDTO il BookDTO con i nuovi dati
+     * @param expectedVersion il token di versione atteso, oppure null per non verificarlo
+     * @return il BookDTO aggiornato, oppure vuoto se il libro non esiste
+     * @throws org.springframework.dao.OptimisticLockingFailureException se la versione non corrisponde
+     */
+    Optional<BookDTO> updateBook(Long id, BookDTO bookDTO, String expectedVersion);
+
+    /**
+     * Aggiorna solo i campi valorizzati di un libro esistente, senza leggerlo prima.
+     *
+     * @param id l'ID del libro da aggiornare
+     * @param patch i campi da modificare; quelli null restano invariati
+     * @return il BookDTO aggiornato, oppure vuoto se il libro non esiste
+     */
+    Optional<BookDTO> patchBook(Long id, BookPatchDTO patch);
+
+    /**
+     * Aggiorna solo i campi valorizzati di un libro esistente se la sua versione corrisponde a quella attesa.
+     *
+     * @param id l'ID del libro da aggiornare
+     * @param patch i campi da modificare; quelli null restano invariati
+     * @param expectedVersion il token di versione atteso, oppure null per non verificarlo
+     * @return il BookDTO aggiornato, oppure vuoto se il libro non esiste
+     * @throws org.springframework.dao.OptimisticLockingFailureException se la versione non corrisponde
+     */
+    Optional<BookDTO> patchBook(Long id, BookPatchDTO patch, String expectedVersion);
 
     /**
      * Elimina un libro dato il suo ID.
@@ -50,6 +141,37 @@ public interface IBookService {
      */
     boolean deleteBook(Long id);
 
+    /**
+     * Elimina un libro dato il suo ID se la sua versione corrisponde a quella attesa.
+     *
+     * @param id l'ID del libro da eliminare
+     * @param expectedVersion il token di versione atteso, oppure null per non verificarlo
+     * @return true se il libro è stato eliminato, false se non esiste
+     * @throws org.springframework.dao.OptimisticLockingFailureException se la versione non corrisponde
+     */
+    boolean deleteBook(Long id, String expectedVersion);
+
+    /**
+     * Elimina con un'unica istruzione i libri con gli ID indicati.
+     *
+     * @param ids gli ID dei libri da eliminare
+     * @return il numero di libri eliminati
+     */
+    int deleteBooks(Collection<Long> ids);
+
+    /**
+     * Elimina con un'unica istruzione i libri che rispettano tutti i filtri valorizzati.
+     * Almeno un filtro deve essere diverso da null.
+     *
+     * @param author l'autore dei libri da eliminare
+     * @param genre il genere dei libri da eliminare
+     * @param fromYear l'anno minimo di pubblicazione, incluso
+     * @param toYear l'anno massimo di pubblicazione, incluso
+     * @return il numero di libri eliminati
+     * @throws IllegalArgumentException se nessun filtro è valorizzato
+     */
+    int deleteBooksMatching(String author, String genre, Integer fromYear, Integer toYear);
+
     /**
      * Cerca i libri in base all'autore.
      *
@@ -58,6 +180,16 @@ public interface IBookService {
      */
     List<BookDTO> findBooksByAuthor(String author);
 
+    /**
+     * Cerca i libri in base all'autore, una pagina alla volta.
+     *
+     * @param author  il nome dell'autore
+     * @param request la pagina richiesta; la dimensione viene limitata al massimo consentito dalla configurazione
+     * @return la pagina di BookDTO, con i totali solo se richiesti
+     * @throws IllegalArgumentException se la pagina, la dimensione o un campo di ordinamento non sono validi
+     */
+    BookSlice findBooksByAuthor(String author, SliceRequest request);
+
     /**
      * Cerca i libri in base al genere.
      *
@@ -66,6 +198,32 @@ public interface IBookService {
      */
     List<BookDTO> findBooksByGenre(String genre);
 
+    /**
+     * Cerca i libri in base al genere, una pagina alla volta.
+     *
+     * @param genre   il genere da cercare
+     * @param request la pagina richiesta; la dimensione viene limitata al massimo consentito dalla configurazione
+     * @return la pagina di BookDTO, con i totali solo se richiesti
+     * @throws IllegalArgumentException se la pagina, la dimensione o un campo di ordinamento non sono validi
+     */
+    BookSlice findBooksByGenre(String genre, SliceRequest request);
+
+    /**
+     * Indica, senza interrogare il database, se l'autore può avere libri nel catalogo.
+     *
+     * @param author l'autore da verificare
+     * @return false se l'autore sicuramente non ha libri, true se potrebbe averne
+     */
+    boolean mayHaveBooksByAuthor(String author);
+
+    /**
+     * Indica, senza interrogare il database, se il genere può avere libri nel catalogo.
+     *
+     * @param genre il genere da verificare
+     * @return false se il genere sicuramente non ha libri, true se potrebbe averne
+     */
+    boolean mayHaveBooksByGenre(String genre);
+
     /**
      * Cerca i libri per titolo utilizzando una ricerca parziale (ignorando il case).
      *
@@ -74,6 +232,16 @@ public interface IBookService {
      */
     List<BookDTO> searchBooksByTitle(String title);
 
+    /**
+     * Cerca i libri per titolo con una ricerca parziale (ignorando il case), una pagina alla volta.
+     *
+     * @param title   la stringa da cercare nel titolo
+     * @param request la pagina richiesta; la dimensione viene limitata al massimo consentito dalla configurazione
+     * @return la pagina di BookDTO, con i totali solo se richiesti
+     * @throws IllegalArgumentException se la pagina, la dimensione o un campo di ordinamento non sono validi
+     */
+    BookSlice searchBooksByTitle(String title, SliceRequest request);
+
     /**
      * Cerca i libri pubblicati prima di un certo anno.
      *
@@ -82,6 +250,16 @@ public interface IBookService {
      */
     List<BookDTO> findBooksByAnnoLessThan(int year);
 
+    /**
+     * Cerca i libri pubblicati prima di un certo anno, una pagina alla volta.
+     *
+     * @param year    l'anno limite (il metodo restituisce libri con anno minore)
+     * @param request la pagina richiesta; la dimensione viene limitata al massimo consentito dalla configurazione
+     * @return la pagina di BookDTO, con i totali solo se richiesti
+     * @throws IllegalArgumentException se la pagina, la dimensione o un campo di ordinamento non sono validi
+     */
+    BookSlice findBooksByAnnoLessThan(int year, SliceRequest request);
+
     /**
      * Conta il numero di libri scritti dall'autore specificato.
      *
@@ -97,6 +275,27 @@ public interface IBookService {
      */
     List<BookDTO> getBooksSortedByAnnoDesc();
 
+    /**
+     * Cerca i libri pubblicati in un intervallo di anni, dal più recente.
+     *
+     * @param from  l'anno iniziale, incluso
+     * @param to    l'anno finale, incluso
+     * @param limit il numero massimo di libri restituiti, null per l'intero intervallo;
+     *              viene limitato al massimo consentito dalla configurazione
+     * @return una lista di BookDTO ordinata per anno discendente e ID
+     * @throws IllegalArgumentException se l'intervallo è invertito o il limite non è positivo
+     */
+    List<BookDTO> findBooksByAnnoBetween(int from, int to, Integer limit);
+
+    /**
+     * Recupera i libri più recenti senza ordinare l'intero catalogo.
+     *
+     * @param limit il numero di libri richiesti, limitato al massimo consentito dalla configurazione
+     * @return una lista di BookDTO ordinata per anno discendente e ID
+     * @throws IllegalArgumentException se il limite non è positivo
+     */
+    List<BookDTO> getNewestBooks(int limit);
+
     /**
      * Cerca i libri che corrispondono al titolo e/o autore specificato.
      *
@@ -105,4 +304,27 @@ public interface IBookService {
      * @return una lista di BookDTO corrispondenti
      */
     List<BookDTO> findBooksByTitleOrAuthor(String title, String author);
+
+    /**
+     * Cerca i libri che corrispondono al titolo e/o autore specificato, una pagina alla volta.
+     *
+     * @param title   la stringa da cercare nel titolo
+     * @param author  la stringa da cercare nell'autore
+     * @param request la pagina richiesta; la dimensione viene limitata al massimo consentito dalla configurazione
+     * @return la pagina di BookDTO, con i totali solo se richiesti
+     * @throws IllegalArgumentException se la pagina, la dimensione o un campo di ordinamento non sono validi
+     */
+    BookSlice findBooksByTitleOrAuthor(String title, String author, SliceRequest request);
+
+    /**
+     * Calcola i conteggi per genere, autore e decennio dei libri che rispettano i filtri.
+     * Ogni filtro è opzionale: se null non restringe il risultato.
+     *
+     * @param author l'autore dei libri da contare
+     * @param genre  il genere dei libri da contare
+     * @param title  la stringa che il titolo deve contenere
+     * @param before l'anno prima del quale i libri devono essere stati pubblicati
+     * @return i conteggi per faccetta
+     */
+    BookFacets getFacets(String author, String genre, String title, Integer before);
 }
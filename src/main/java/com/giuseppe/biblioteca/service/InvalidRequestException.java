@@ -0,0 +1,23 @@
+package com.giuseppe.biblioteca.service;
+
+/**
+ * Richiesta non valida rilevata dal servizio, da restituire al client come 400.
+ * Non cattura lo stack trace: segnala un errore del client, non del codice, e costruirlo
+ * costerebbe più dell'intera validazione.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+
+    /**
+     * Crea l'eccezione con il messaggio da mostrare al client.
+     *
+     * @param message il messaggio di errore
+     */
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,126 @@
+package com.giuseppe.biblioteca.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Fa condividere un'unica esecuzione alle chiamate identiche e concorrenti dei metodi {@link Coalesced}
+ * (single-flight): la prima chiamata per una combinazione di metodo e argomenti esegue la lettura,
+ * quelle che arrivano mentre è in corso ne attendono il risultato, o l'eccezione, invece di interrogare
+ * a loro volta il database. A lettura conclusa la chiave viene rimossa, quindi non si conserva nessun
+ * risultato: una chiamata successiva ne esegue una nuova.
+ *
+ * <p>La chiave include la versione del catalogo, che cambia dopo il commit di ogni modifica:
+ * una lettura iniziata dopo una scrittura confermata non riceve mai il risultato di una lettura
+ * partita prima. Viene eseguito dopo {@code ServiceMetricsAspect}, così le metriche del servizio
+ * contano ogni chiamante, e prima di transazioni e cache, così chi attende non occupa una connessione.</p>
+ *
+ * <p>Il contatore {@value #CALLS_METRIC} è etichettato per metodo e ruolo: "leader" per le chiamate
+ * eseguite, "follower" per quelle servite dal risultato condiviso. Il rapporto di coalescenza è
+ * follower / (leader + follower).</p>
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SingleFlightAspect {
+
+    static final String CALLS_METRIC = "biblioteca.singleflight.calls";
+
+    private final MeterRegistry registry;
+
+    private final CatalogVersion catalogVersion;
+
+    private final boolean enabled;
+
+    private final Map<CallKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> leaders = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> followers = new ConcurrentHashMap<>();
+
+    private record CallKey(String method, List<Object> args, String catalogVersion) {
+    }
+
+    /**
+     * Inietta le dipendenze e la configurazione.
+     *
+     * @param registry       il registro Micrometer dell'applicazione
+     * @param catalogVersion il contatore delle modifiche al catalogo
+     * @param enabled        se false ogni chiamata viene eseguita separatamente
+     */
+    public SingleFlightAspect(MeterRegistry registry,
+                              CatalogVersion catalogVersion,
+                              @Value("${biblioteca.single-flight.enabled:true}") boolean enabled) {
+        this.registry = registry;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Esegue la lettura oppure si accoda a quella identica già in corso.
+     *
+     * @param joinPoint la chiamata intercettata
+     * @return il risultato, condiviso con le chiamate concorrenti identiche
+     * @throws Throwable l'eccezione sollevata dalla lettura, rilanciata a ogni chiamante
+     */
+    @Around("@annotation(com.giuseppe.biblioteca.service.Coalesced)"
+            + " && execution(* com.giuseppe.biblioteca.service.IBookService.*(..))")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled)
+            return joinPoint.proceed();
+
+        String method = joinPoint.getSignature().getName();
+        // Arrays.asList accetta argomenti null, a differenza di List.of.
+        CallKey key = new CallKey(method, Arrays.asList(joinPoint.getArgs()), catalogVersion.current());
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            counter(followers, method, "follower").increment();
+            return await(running);
+        }
+
+        counter(leaders, method, "leader").increment();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            inFlight.remove(key, call);
+            call.completeExceptionally(ex);
+            throw ex;
+        }
+        inFlight.remove(key, call);
+        call.complete(result);
+        return result;
+    }
+
+    private static Object await(CompletableFuture<Object> running) throws Throwable {
+        try {
+            return running.get();
+        } catch (ExecutionException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String method, String role) {
+        return counters.computeIfAbsent(method, key ->
+                Counter.builder(CALLS_METRIC)
+                        .description("Letture del servizio eseguite o servite da una lettura identica in corso")
+                        .tag("method", key)
+                        .tag("role", role)
+                        .register(registry));
+    }
+}
@@ -0,0 +1,314 @@
+package com.giuseppe.biblioteca.snapshot;
+
+import com.giuseppe.biblioteca.model.BookRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binario compatto dello snapshot della tabella book.
+ *
+ * <p>Intestazione di {@value #HEADER_BYTES} byte: magic, versione del formato, numero di righe,
+ * ID massimo e CRC32 del corpo. Il corpo contiene le righe in ordine di ID crescente, ciascuna come
+ * delta dell'ID rispetto alla precedente, versione, anno, titolo, autore e genere. Numeri e lunghezze
+ * sono varint; autore e genere sono codificati con un dizionario costruito durante la scrittura,
+ * così un valore ripetuto occupa uno o due byte invece dell'intera stringa.</p>
+ *
+ * <p>La lettura mappa il file in memoria e lo decodifica senza copie intermedie: il limite è quindi
+ * di 2 GB per snapshot, ampiamente sufficiente per cataloghi di diversi milioni di libri.</p>
+ */
+public final class CatalogSnapshotFile {
+
+    static final int MAGIC = 0x42494253;
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int HEADER_BYTES = 32;
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private CatalogSnapshotFile() {}
+
+    /**
+     * Riepilogo di uno snapshot scritto o letto.
+     *
+     * @param rows  il numero di libri
+     * @param maxId l'ID massimo presente, 0 se lo snapshot è vuoto
+     * @param bytes la dimensione del file in byte
+     */
+    public record Summary(
+            long rows,
+            long maxId,
+            long bytes) {
+    }
+
+    /**
+     * Apre la scrittura di un nuovo snapshot. Il file viene scritto accanto alla destinazione
+     * e la sostituisce in modo atomico solo con {@link Writer#commit()}, così uno snapshot
+     * interrotto non corrompe mai quello precedente.
+     *
+     * @param target il percorso dello snapshot
+     * @return lo scrittore, da chiudere anche in caso di errore
+     * @throws IOException se il file temporaneo non può essere creato
+     */
+    public static Writer create(Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        return new Writer(target, temp);
+    }
+
+    /**
+     * Legge uno snapshot tramite un file mappato in memoria, passando ogni riga al consumer
+     * in ordine di ID crescente. L'integrità del corpo viene verificata prima di emettere righe.
+     *
+     * @param source il percorso dello snapshot
+     * @param sink   il destinatario delle righe lette
+     * @return il riepilogo dello snapshot
+     * @throws IOException se il file non è leggibile, è troppo grande o è corrotto
+     */
+    public static Summary read(Path source, Consumer<BookRow> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES)
+                throw new IOException("Snapshot troncato: " + size + " byte");
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Snapshot oltre il limite di 2 GB: " + size + " byte");
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC)
+                throw new IOException("Il file non è uno snapshot del catalogo: " + source);
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION)
+                throw new IOException("Versione del formato non supportata: " + formatVersion);
+            long rows = buffer.getLong();
+            long maxId = buffer.getLong();
+            long checksum = buffer.getLong();
+
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice());
+            if (crc.getValue() != checksum)
+                throw new IOException("Snapshot corrotto: CRC32 non corrispondente");
+
+            List<String> authors = new ArrayList<>();
+            List<String> genres = new ArrayList<>();
+            long id = 0;
+            try {
+                for (long i = 0; i < rows; i++) {
+                    id += getVarLong(buffer);
+                    long version = getVarLong(buffer);
+                    int anno = zigZagDecode(getVarLong(buffer));
+                    String title = getString(buffer);
+                    String author = getDictionaryEntry(buffer, authors);
+                    String genre = getDictionaryEntry(buffer, genres);
+                    sink.accept(new BookRow(id, title, author, anno, genre, version));
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+                throw new IOException("Snapshot corrotto: righe incomplete", ex);
+            }
+            return new Summary(rows, maxId, size);
+        }
+    }
+
+    /**
+     * Scrittore sequenziale di uno snapshot; le righe vanno aggiunte in ordine di ID crescente.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path target;
+
+        private final Path temp;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+
+        private final CRC32 crc = new CRC32();
+
+        private final Map<String, Integer> authors = new HashMap<>();
+
+        private final Map<String, Integer> genres = new HashMap<>();
+
+        private long rows;
+
+        private long lastId;
+
+        private boolean committed;
+
+        private Writer(Path target, Path temp) throws IOException {
+            this.target = target;
+            this.temp = temp;
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            // L'intestazione viene riscritta alla fine, quando conteggio e checksum sono noti.
+            channel.position(HEADER_BYTES);
+        }
+
+        /**
+         * Aggiunge una riga allo snapshot.
+         *
+         * @param row la riga, con ID maggiore di quello della riga precedente
+         * @throws IOException se la scrittura fallisce
+         */
+        public void append(BookRow row) throws IOException {
+            if (row.id() <= lastId)
+                throw new IllegalArgumentException("Le righe vanno scritte in ordine di ID crescente: " + row.id());
+            ensureRemaining(3 * 10);
+            putVarLong(row.id() - lastId);
+            putVarLong(row.version());
+            putVarLong(zigZagEncode(row.anno()));
+            putString(row.title());
+            putDictionaryEntry(row.author(), authors);
+            putDictionaryEntry(row.genre(), genres);
+            lastId = row.id();
+            rows++;
+        }
+
+        /**
+         * Completa lo snapshot e sostituisce in modo atomico quello esistente.
+         *
+         * @return il riepilogo dello snapshot scritto
+         * @throws IOException se la scrittura o lo spostamento falliscono
+         */
+        public Summary commit() throws IOException {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(rows)
+                    .putLong(lastId)
+                    .putLong(crc.getValue())
+                    .flip();
+            channel.write(header, 0);
+            channel.force(true);
+            long bytes = channel.size();
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return new Summary(rows, lastId, bytes);
+        }
+
+        /**
+         * Chiude lo scrittore; se lo snapshot non è stato completato elimina il file temporaneo.
+         */
+        @Override
+        public void close() throws IOException {
+            if (channel.isOpen())
+                channel.close();
+            if (!committed)
+                Files.deleteIfExists(temp);
+        }
+
+        private void putDictionaryEntry(String value, Map<String, Integer> dictionary) throws IOException {
+            // 0 = null, 1..n = voce già presente, n + 1 = nuova voce seguita dalla stringa.
+            ensureRemaining(5);
+            if (value == null) {
+                putVarLong(0);
+                return;
+            }
+            Integer index = dictionary.get(value);
+            if (index != null) {
+                putVarLong(index + 1);
+                return;
+            }
+            index = dictionary.size();
+            dictionary.put(value, index);
+            putVarLong(index + 1);
+            putString(value);
+        }
+
+        private void putString(String value) throws IOException {
+            // 0 = null, altrimenti lunghezza in byte + 1 seguita dall'UTF-8.
+            ensureRemaining(5);
+            if (value == null) {
+                putVarLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length + 1L);
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!buffer.hasRemaining())
+                    flush();
+                int chunk = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+            }
+        }
+
+        private void putVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+    }
+
+    private static String getDictionaryEntry(ByteBuffer buffer, List<String> dictionary) {
+        int code = (int) getVarLong(buffer);
+        if (code == 0)
+            return null;
+        if (code <= dictionary.size())
+            return dictionary.get(code - 1);
+        String value = getString(buffer);
+        dictionary.add(value);
+        return value;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = (int) getVarLong(buffer);
+        if (length == 0)
+            return null;
+        byte[] bytes = new byte[length - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long zigZagEncode(int value) {
+        return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+    }
+
+    private static int zigZagDecode(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+}
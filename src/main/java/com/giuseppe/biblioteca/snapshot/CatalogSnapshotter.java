@@ -0,0 +1,210 @@
+package com.giuseppe.biblioteca.snapshot;
+
+import com.giuseppe.biblioteca.model.BookRow;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Salva periodicamente e allo spegnimento la tabella book in uno snapshot binario
+ * e lo ricarica all'avvio, così il database in memoria riparte con il catalogo già popolato.
+ *
+ * <p>Il caricamento avviene dopo la creazione dello schema e prima dell'avvio del web server e della
+ * costruzione delle strutture in memoria (indice a trigrammi, contatori per autore), che quindi
+ * partono dal catalogo ripristinato. Le righe vengono inserite con batch JDBC a blocchi e la sequence
+ * degli ID viene riportata oltre l'ID massimo ripristinato.</p>
+ *
+ * <p>Il salvataggio viene saltato se la tabella non è cambiata dall'ultimo snapshot. Il confronto si fa
+ * sulla tabella stessa e non sugli eventi di modifica, così vale per qualunque scrittura,
+ * anche quelle che non passano dal servizio.</p>
+ *
+ * <p>Disattivato se biblioteca.snapshot.path è vuoto.</p>
+ */
+@Component
+public class CatalogSnapshotter implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotter.class);
+
+    private static final String INSERT = "insert into book (id, title, author, anno, genre, version) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT = "select id, title, author, anno, genre, version from book order by id";
+
+    /**
+     * Impronta dello stato della tabella. Un aggiornamento incrementa la versione della riga, un inserimento
+     * porta l'ID massimo oltre quello precedente (gli ID vengono da una sequence) e un'eliminazione
+     * senza inserimenti riduce il conteggio: qualunque combinazione di modifiche cambia almeno un valore.
+     */
+    private static final String FINGERPRINT = "select count(*), coalesce(max(id), 0), coalesce(sum(version), 0) from book";
+
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Path path;
+
+    private final int loadBatchSize;
+
+    private final Object lock = new Object();
+
+    private String snapshotFingerprint;
+
+    /**
+     * Inietta le dipendenze e la configurazione dello snapshot.
+     *
+     * @param jdbcTemplate  il template JDBC usato per leggere e ripristinare la tabella
+     * @param path          il percorso dello snapshot, vuoto per disattivarlo
+     * @param loadBatchSize il numero di righe inserite per ogni batch durante il ripristino
+     */
+    public CatalogSnapshotter(JdbcTemplate jdbcTemplate,
+                              @Value("${biblioteca.snapshot.path:}") String path,
+                              @Value("${biblioteca.snapshot.load-batch-size:5000}") int loadBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /**
+     * Ripristina il catalogo dallo snapshot, se esiste e la tabella è vuota.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (path == null || !Files.exists(path))
+            return;
+
+        Long existing = jdbcTemplate.queryForObject("select count(*) from book", Long.class);
+        if (existing != null && existing > 0) {
+            log.info("Snapshot {} non caricato: la tabella contiene già {} libri", path, existing);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<Object[]> batch = new ArrayList<>(loadBatchSize);
+            CatalogSnapshotFile.Summary summary = CatalogSnapshotFile.read(path, row -> {
+                batch.add(new Object[]{row.id(), row.title(), row.author(), row.anno(), row.genre(), row.version()});
+                if (batch.size() == loadBatchSize)
+                    insert(batch);
+            });
+            insert(batch);
+            restartSequence(summary.maxId());
+
+            synchronized (lock) {
+                snapshotFingerprint = fingerprint();
+            }
+            log.info("Catalogo ripristinato da {}: {} libri ({} KB) in {} ms", path, summary.rows(),
+                    summary.bytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException ioex) {
+            // Lo snapshot illeggibile viene conservato a parte, altrimenti il prossimo salvataggio lo sovrascriverebbe.
+            jdbcTemplate.update("delete from book");
+            Path corrupt = path.resolveSibling(path.getFileName() + ".corrupt");
+            log.error("Snapshot {} non caricabile, spostato in {}: si parte con il catalogo vuoto", path, corrupt, ioex);
+            try {
+                Files.move(path, corrupt, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveEx) {
+                log.warn("Impossibile spostare lo snapshot {}", path, moveEx);
+            }
+        }
+    }
+
+    /**
+     * Salva lo snapshot a intervalli regolari, solo se il catalogo è cambiato dall'ultimo salvataggio.
+     */
+    @Scheduled(initialDelayString = "${biblioteca.snapshot.interval:PT5M}",
+            fixedDelayString = "${biblioteca.snapshot.interval:PT5M}")
+    public void scheduledSnapshot() {
+        if (path == null)
+            return;
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.error("Salvataggio dello snapshot {} non riuscito", path, ex);
+        }
+    }
+
+    /**
+     * Salva un ultimo snapshot allo spegnimento, prima che il database in memoria venga chiuso.
+     */
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        scheduledSnapshot();
+    }
+
+    /**
+     * Scrive lo snapshot se la tabella è cambiata dall'ultimo salvataggio o ripristino.
+     * L'impronta viene letta prima dell'export: una modifica confermata nel frattempo può finire già in
+     * questo snapshot, ma cambia comunque l'impronta e provoca un salvataggio in più, mai uno perso.
+     *
+     * @return il riepilogo dello snapshot scritto, oppure null se non c'era nulla da salvare
+     * @throws IOException se la scrittura fallisce; lo snapshot precedente resta intatto
+     */
+    public CatalogSnapshotFile.Summary snapshot() throws IOException {
+        synchronized (lock) {
+            String fingerprint = fingerprint();
+            if (fingerprint.equals(snapshotFingerprint))
+                return null;
+
+            long start = System.nanoTime();
+            CatalogSnapshotFile.Summary summary;
+            try (CatalogSnapshotFile.Writer writer = CatalogSnapshotFile.create(path)) {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT);
+                    statement.setFetchSize(EXPORT_FETCH_SIZE);
+                    return statement;
+                }, resultSet -> {
+                    BookRow row = new BookRow(resultSet.getLong("id"), resultSet.getString("title"),
+                            resultSet.getString("author"), resultSet.getInt("anno"), resultSet.getString("genre"),
+                            resultSet.getLong("version"));
+                    try {
+                        writer.append(row);
+                    } catch (IOException ioex) {
+                        throw new UncheckedIOException(ioex);
+                    }
+                });
+                summary = writer.commit();
+            } catch (UncheckedIOException uioex) {
+                throw uioex.getCause();
+            }
+            snapshotFingerprint = fingerprint;
+            log.info("Snapshot del catalogo salvato in {}: {} libri ({} KB) in {} ms", path, summary.rows(),
+                    summary.bytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+            return summary;
+        }
+    }
+
+    private String fingerprint() {
+        return jdbcTemplate.queryForObject(FINGERPRINT,
+                (resultSet, rowNum) -> resultSet.getLong(1) + "-" + resultSet.getLong(2) + "-" + resultSet.getLong(3));
+    }
+
+    private void insert(List<Object[]> batch) {
+        if (batch.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate(INSERT, batch);
+        batch.clear();
+    }
+
+    /**
+     * Porta la sequence oltre l'ID massimo ripristinato. Hibernate riserva gli ID a blocchi
+     * che terminano sul valore letto dalla sequence, quindi si aggiunge un intero blocco di margine.
+     */
+    private void restartSequence(long maxId) {
+        Long increment = jdbcTemplate.queryForObject(
+                "select increment from information_schema.sequences where sequence_name = 'BOOK_SEQ'", Long.class);
+        long next = maxId + (increment == null ? 1 : increment) + 1;
+        jdbcTemplate.execute("alter sequence book_seq restart with " + next);
+    }
+}
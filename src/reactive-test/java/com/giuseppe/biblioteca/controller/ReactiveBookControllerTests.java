@@ -0,0 +1,109 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.index.AuthorCounters;
+import com.giuseppe.biblioteca.index.NegativeLookupFilter;
+import com.giuseppe.biblioteca.index.TitleTrigramIndex;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.service.CatalogVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:reactivetest;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest?options=DB_CLOSE_DELAY=-1",
+                "biblioteca.pagination.max-size=5"})
+@ActiveProfiles("reactive")
+class ReactiveBookControllerTests {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private AuthorCounters authorCounters;
+
+    @Autowired
+    private TitleTrigramIndex titleIndex;
+
+    @Autowired
+    private NegativeLookupFilter negativeLookup;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    /**
+     * Le scritture R2DBC pubblicano gli eventi di modifica: versione del catalogo, contatori,
+     * filtri e indice dei titoli seguono inserimento, aggiornamento ed eliminazione.
+     */
+    @Test
+    void writesKeepDerivedStructuresInSync() {
+        String version = catalogVersion.current();
+        BookDTO created = create(new BookDTO(null, "Il barone rampante", "Calvino Reattivo", 1957, "Romanzo"));
+        assertThat(catalogVersion.current()).isNotEqualTo(version);
+        assertThat(authorCounters.count("Calvino Reattivo")).isEqualTo(1);
+        assertThat(negativeLookup.mightContainAuthor("Calvino Reattivo")).isTrue();
+        assertThat(titleIndex.search("barone rampante")).contains(List.of(created.id()));
+
+        client.put().uri("/api/books/{id}", created.id())
+                .bodyValue(new BookDTO(null, "Il cavaliere inesistente", "Italo Reattivo", 1959, "Romanzo"))
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(authorCounters.count("Calvino Reattivo")).isZero();
+        assertThat(authorCounters.count("Italo Reattivo")).isEqualTo(1);
+        assertThat(titleIndex.search("barone rampante")).contains(List.of());
+        assertThat(titleIndex.search("cavaliere inesistente")).contains(List.of(created.id()));
+
+        client.delete().uri("/api/books/{id}", created.id()).exchange().expectStatus().isOk();
+        assertThat(authorCounters.count("Italo Reattivo")).isZero();
+        assertThat(titleIndex.search("cavaliere inesistente")).contains(List.of());
+        client.delete().uri("/api/books/{id}", created.id()).exchange().expectStatus().isNotFound();
+    }
+
+    /**
+     * L'elenco è paginato a cursore come nello stack servlet e nessuna pagina supera il massimo configurato.
+     */
+    @Test
+    void listIsPagedByCursorWithinTheSizeCap() {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+            created.add(create(new BookDTO(null, "Pagina " + i, "Autore Paginato", 2000 + i, "Saggistica")).id());
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            Optional<String> after = Optional.ofNullable(cursor);
+            BookPage page = client.get()
+                    .uri(builder -> builder.path("/api/books").queryParam("size", 50)
+                            .queryParamIfPresent("cursor", after).build())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(BookPage.class)
+                    .returnResult().getResponseBody();
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(5);
+            page.content().forEach(book -> seen.add(book.id()));
+            cursor = page.next();
+        } while (cursor != null);
+
+        assertThat(seen).containsAll(created).doesNotHaveDuplicates().isSorted();
+        client.get().uri("/api/books?cursor=!!").exchange().expectStatus().isBadRequest();
+        client.get().uri("/api/books?size=0").exchange().expectStatus().isBadRequest();
+    }
+
+    private BookDTO create(BookDTO book) {
+        return client.post().uri("/api/books")
+                .bodyValue(book)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookDTO.class)
+                .returnResult().getResponseBody();
+    }
+}
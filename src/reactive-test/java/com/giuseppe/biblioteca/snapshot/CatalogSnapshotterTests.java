@@ -0,0 +1,87 @@
+package com.giuseppe.biblioteca.snapshot;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:snapshottest;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.url=r2dbc:h2:mem:///snapshottest?options=DB_CLOSE_DELAY=-1",
+                "biblioteca.snapshot.interval=PT1H"})
+@ActiveProfiles("reactive")
+class CatalogSnapshotterTests {
+
+    @TempDir
+    private static Path directory;
+
+    @Autowired
+    private CatalogSnapshotter snapshotter;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) {
+        registry.add("biblioteca.snapshot.path", () -> snapshotFile().toString());
+    }
+
+    /**
+     * Le scritture dello stack reattivo, comprese quelle che non passano dal servizio e non pubblicano eventi,
+     * provocano un nuovo snapshot; senza modifiche lo snapshot non viene riscritto.
+     */
+    @Test
+    void reactiveWritesRewriteTheSnapshot() throws IOException {
+        snapshotter.snapshot();
+        assertThat(snapshotter.snapshot()).isNull();
+
+        BookDTO created = client.post().uri("/api/books")
+                .bodyValue(new BookDTO(null, "Se una notte d'inverno un viaggiatore", "Italo Calvino", 1979, "Romanzo"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BookDTO.class)
+                .returnResult().getResponseBody();
+        assertThat(snapshotter.snapshot()).isNotNull();
+        assertThat(snapshotRows()).extracting(BookRow::title).containsExactly("Se una notte d'inverno un viaggiatore");
+        assertThat(snapshotter.snapshot()).isNull();
+
+        client.put().uri("/api/books/{id}", created.id())
+                .bodyValue(new BookDTO(null, "Le città invisibili", "Italo Calvino", 1972, "Romanzo"))
+                .exchange()
+                .expectStatus().isOk();
+        assertThat(snapshotter.snapshot()).isNotNull();
+        assertThat(snapshotRows()).extracting(BookRow::title).containsExactly("Le città invisibili");
+
+        databaseClient.sql("delete from book where id = :id").bind("id", created.id())
+                .fetch().rowsUpdated().block();
+        assertThat(snapshotter.snapshot()).isNotNull();
+        assertThat(snapshotRows()).isEmpty();
+    }
+
+    private static Path snapshotFile() {
+        return directory.resolve("catalog.snapshot");
+    }
+
+    private static List<BookRow> snapshotRows() throws IOException {
+        List<BookRow> rows = new ArrayList<>();
+        CatalogSnapshotFile.read(snapshotFile(), rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,41 @@
+package com.giuseppe.biblioteca.config;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+import java.util.Set;
+
+/**
+ * Limita l'autoconfigurazione R2DBC al profilo "reactive" quando il build include lo stack reattivo.
+ * Il transaction manager R2DBC resta sempre escluso: sostituirebbe quello JPA usato da @Transactional.
+ */
+public class R2dbcAutoConfigurationFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+
+    private static final String TRANSACTION_MANAGER =
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration";
+
+    private static final Set<String> REACTIVE_ONLY = Set.of(
+            "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+            "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration");
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean reactive = environment.matchesProfiles("reactive");
+        boolean[] matches = new boolean[autoConfigurationClasses.length];
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            String candidate = autoConfigurationClasses[i];
+            matches[i] = !TRANSACTION_MANAGER.equals(candidate) && (reactive || !REACTIVE_ONLY.contains(candidate));
+        }
+        return matches;
+    }
+}
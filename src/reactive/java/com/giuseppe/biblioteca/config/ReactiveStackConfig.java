@@ -0,0 +1,64 @@
+package com.giuseppe.biblioteca.config;
+
+import com.giuseppe.biblioteca.model.BookRow;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.relational.core.mapping.DefaultNamingStrategy;
+import org.springframework.data.relational.core.mapping.NamingStrategy;
+
+/**
+ * Configurazione dello stack reattivo, attiva con il profilo "reactive".
+ * Le classi dello stack e le sue dipendenze sono incluse solo compilando con il profilo Maven "reactive".
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveStackConfig {
+
+    /**
+     * Serve le richieste con Reactor Netty: con Tomcat nel classpath Spring Boot sceglierebbe
+     * l'adattatore servlet, che non è non bloccante fino al socket.
+     *
+     * @return la factory del server Netty
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Mantiene il DataSource JDBC anche con il profilo reattivo.
+     * Spring Boot non lo crea quando è presente una ConnectionFactory R2DBC, ma schema,
+     * indice dei titoli e contatori per autore continuano a passare da JPA sullo stesso database H2.
+     *
+     * @param properties le proprietà spring.datasource.*
+     * @return il DataSource condiviso con JPA
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Associa {@link BookRow} alla tabella book dell'entità JPA; senza questa regola R2DBC
+     * userebbe la tabella book_row derivata dal nome del record.
+     *
+     * @return la strategia di nomi usata dal mapping R2DBC
+     */
+    @Bean
+    public NamingStrategy bookRowNamingStrategy() {
+        return new DefaultNamingStrategy() {
+            @Override
+            public String getTableName(Class<?> type) {
+                return type == BookRow.class ? "book" : super.getTableName(type);
+            }
+        };
+    }
+}
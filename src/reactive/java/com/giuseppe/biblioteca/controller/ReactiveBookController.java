@@ -0,0 +1,238 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.service.IReactiveBookService;
+import com.giuseppe.biblioteca.service.InvalidRequestException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controller reattivo per la gestione dei libri, attivo con il profilo "reactive".
+ * Espone gli stessi endpoint di {@link BookController} restituendo Flux e Mono:
+ * gli elenchi vengono scritti man mano che le righe arrivano, rispettando la backpressure del client.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/books")
+public class ReactiveBookController {
+
+    private IReactiveBookService bookService;
+
+    /**
+     * Inietta il servizio reattivo per la gestione dei libri.
+     *
+     * @param bookService il servizio da utilizzare
+     */
+    public ReactiveBookController(IReactiveBookService bookService) {
+        this.bookService = bookService;
+    }
+
+    /**
+     * Recupera i libri presenti, una pagina alla volta tramite cursore, come lo stack servlet.
+     * L'intero catalogo resta disponibile in streaming tramite /export.
+     *
+     * @param cursor il cursore restituito dalla pagina precedente, assente per la prima pagina
+     * @param size   il numero di libri per pagina, limitato lato server
+     * @return la pagina di libri oppure un messaggio di errore se il cursore o la dimensione non sono validi
+     */
+    @GetMapping
+    public Mono<BookPage> getAll(@RequestParam(required = false) String cursor,
+                                 @RequestParam(defaultValue = "20") int size) {
+        return bookService.getBooksPage(cursor, size)
+                .onErrorMap(InvalidRequestException.class, ex -> badRequest(ex.getMessage()));
+    }
+
+    /**
+     * Esporta l'intero catalogo in formato NDJSON, un libro per riga.
+     *
+     * @return il Flux dei libri serializzati uno per riga
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookDTO> export() {
+        return bookService.getAllBooks();
+    }
+
+    /**
+     * Recupera un libro dato il suo ID.
+     *
+     * @param id l'ID del libro
+     * @return il libro richiesto oppure 404 se non trovato
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookDTO>> getById(@PathVariable Long id) {
+        return bookService.getBookById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Crea un nuovo libro.
+     *
+     * @param book il BookDTO da creare; il campo id deve essere null
+     * @return il libro creato oppure un messaggio di errore in caso di input non valido
+     */
+    @PostMapping
+    public Mono<ResponseEntity<?>> create(@RequestBody BookDTO book) {
+        if (book.id() != null)
+            return Mono.just(ResponseEntity.badRequest().body("Non includere campo id, ci pensa il database"));
+
+        return bookService.createBook(book).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Aggiorna un libro esistente.
+     *
+     * @param id   l'ID del libro da aggiornare
+     * @param book il BookDTO con i nuovi dati
+     * @return il libro aggiornato oppure 404 se il libro non esiste
+     */
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<BookDTO>> update(@PathVariable Long id, @RequestBody BookDTO book) {
+        return bookService.updateBook(id, book)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Elimina un libro dato il suo ID.
+     *
+     * @param id l'ID del libro da eliminare
+     * @return un messaggio che conferma l'eliminazione o un errore se il libro non esiste
+     */
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> delete(@PathVariable Long id) {
+        return bookService.deleteBook(id).map(deleted -> deleted
+                ? ResponseEntity.ok("Libro con id =" + id + " eliminato con successo.")
+                : ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Recupera i libri in base all'autore.
+     *
+     * @param author il nome dell'autore da cercare
+     * @return i libri dell'autore oppure un messaggio di errore se non trovati o input non valido
+     */
+    @GetMapping("/by-author/{author}")
+    public Flux<BookDTO> getBooksByAuthor(@PathVariable String author) {
+        if (author.matches("\\d+"))
+            return Flux.error(badRequest("Il parametro per autore non può essere composto solo da numeri."));
+
+        return notFoundIfEmpty(bookService.findBooksByAuthor(author), "Nessun libro trovato per l'autore: " + author);
+    }
+
+    /**
+     * Recupera i libri in base al genere.
+     *
+     * @param genre il genere da cercare
+     * @return i libri del genere oppure un messaggio di errore se non trovati o input non valido
+     */
+    @GetMapping("/by-genre/{genre}")
+    public Flux<BookDTO> getBooksByGenre(@PathVariable String genre) {
+        if (genre.matches("\\d+"))
+            return Flux.error(badRequest("Il parametro per genere non può essere composto solo da numeri."));
+
+        return notFoundIfEmpty(bookService.findBooksByGenre(genre), "Non sono presenti libri del genere: " + genre);
+    }
+
+    /**
+     * Cerca libri che contengono una determinata stringa nel titolo.
+     *
+     * @param title la stringa da ricercare nel titolo
+     * @return i libri trovati oppure un messaggio di errore se nessun libro è trovato
+     */
+    @GetMapping("/search/title")
+    public Flux<BookDTO> searchBooksByTitle(@RequestParam String title) {
+        return notFoundIfEmpty(bookService.searchBooksByTitle(title), "Non sono presenti libri con il titolo: " + title);
+    }
+
+    /**
+     * Recupera i libri pubblicati prima di un anno specifico.
+     *
+     * @param year l'anno limite (come stringa)
+     * @return i libri trovati oppure un messaggio di errore se nessun libro è trovato o input non valido
+     */
+    @GetMapping("/before/{year}")
+    public Flux<BookDTO> getBooksBeforeYear(@PathVariable String year) {
+        if (!year.matches("\\d+"))
+            return Flux.error(badRequest("L'anno deve essere un numero valido."));
+
+        return notFoundIfEmpty(bookService.findBooksByAnnoLessThan(Integer.parseInt(year)),
+                "Non sono presenti libri pubblicati prima dell'anno: " + year);
+    }
+
+    /**
+     * Conta i libri scritti da un determinato autore.
+     *
+     * @param author l'autore di cui contare i libri
+     * @return il numero dei libri oppure un messaggio di errore se non trovati o input non valido
+     */
+    @GetMapping("/count/author/{author}")
+    public Mono<Long> countBooksByAuthor(@PathVariable String author) {
+        if (author.matches("\\d+"))
+            return Mono.error(badRequest("Il parametro per autore non può essere composto solo da numeri."));
+
+        return bookService.countBooksByAuthor(author)
+                .filter(count -> count > 0)
+                .switchIfEmpty(Mono.error(notFound("Nessun libro trovato per l'autore: " + author)));
+    }
+
+    /**
+     * Recupera i libri ordinati per anno in ordine discendente.
+     *
+     * @return i libri ordinati oppure un messaggio di errore se il catalogo è vuoto
+     */
+    @GetMapping("/sorted")
+    public Flux<BookDTO> getBooksSortedByAnnoDesc() {
+        return notFoundIfEmpty(bookService.getBooksSortedByAnnoDesc(), "Non sono presenti libri ordinabili.");
+    }
+
+    /**
+     * Cerca libri basandosi sul titolo e/o autore.
+     *
+     * @param title  la stringa da cercare nel titolo
+     * @param author la stringa da cercare nell'autore
+     * @return i libri trovati oppure un messaggio di errore se nessun libro è trovato o input non valido
+     */
+    @GetMapping("/search/title-or-author")
+    public Flux<BookDTO> searchBooksByTitleOrAuthor(@RequestParam String title, @RequestParam String author) {
+        if (author.matches("\\d+"))
+            return Flux.error(badRequest("Il parametro per autore non può essere composto solo da numeri."));
+
+        return notFoundIfEmpty(bookService.findBooksByTitleOrAuthor(title, author),
+                "Non sono presenti libri con il titolo '" + title + "' o l'autore '" + author + "'.");
+    }
+
+    /**
+     * Restituisce il messaggio di errore come corpo testuale, come fa lo stack servlet.
+     *
+     * @param ex l'eccezione con lo stato e il messaggio
+     * @return la risposta di errore
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<String> handleStatus(ResponseStatusException ex) {
+        return ResponseEntity.status(ex.getStatusCode()).body(ex.getReason());
+    }
+
+    /**
+     * Segnala 404 se il Flux termina senza elementi. L'errore arriva prima che venga scritto
+     * qualunque byte, quindi lo stato della risposta può ancora essere cambiato.
+     */
+    private static Flux<BookDTO> notFoundIfEmpty(Flux<BookDTO> books, String message) {
+        return books.switchIfEmpty(Flux.error(notFound(message)));
+    }
+
+    private static ResponseStatusException notFound(String message) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, message);
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.giuseppe.biblioteca.repository;
+
+import com.giuseppe.biblioteca.model.BookRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveBookRepository extends R2dbcRepository<BookRow, Long> {
+
+    Flux<BookRow> findByAuthor(String author);
+
+    Flux<BookRow> findByGenre(String genre);
+
+    Flux<BookRow> findByTitleContainingIgnoreCase(String title);
+
+    Flux<BookRow> findByAnnoLessThan(int year);
+
+    Mono<Long> countByAuthor(String author);
+
+    Flux<BookRow> findAllByOrderByAnnoDesc();
+
+    @Query("select * from book where id > :id order by id limit :limit")
+    Flux<BookRow> findByIdGreaterThan(long id, int limit);
+
+    @Query("select * from book where title = :title union select * from book where author = :author")
+    Flux<BookRow> findByTitleOrAuthor(String title, String author);
+
+    // Gli ID vengono dalla stessa sequence usata da JPA, così i due stack non collidono.
+    @Query("select next value for book_seq")
+    Mono<Long> nextId();
+
+    // La riga eliminata, letta dalla tabella delta OLD TABLE di H2, serve all'evento di modifica del catalogo.
+    @Query("select * from old table (delete from book where id = :id)")
+    Mono<BookRow> deleteReturningById(Long id);
+}
@@ -0,0 +1,122 @@
+package com.giuseppe.biblioteca.service;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookPage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controparte non bloccante di {@link IBookService}, usata dal profilo "reactive".
+ * I risultati multipli sono Flux che rispettano la backpressure del client:
+ * le righe vengono lette dal database solo quando il consumatore le richiede.
+ * Le modifiche pubblicano gli stessi {@link CatalogChangeEvent} dello stack servlet,
+ * così indici, contatori, cache e snapshot restano allineati alla tabella.
+ */
+public interface IReactiveBookService {
+
+    /**
+     * Recupera tutti i libri presenti.
+     *
+     * @return un Flux di BookDTO contenente tutti i libri
+     */
+    Flux<BookDTO> getAllBooks();
+
+    /**
+     * Recupera una pagina di libri ordinati per ID, a partire dal cursore indicato.
+     *
+     * @param cursor il cursore restituito dalla pagina precedente, null per la prima pagina
+     * @param size   il numero di libri richiesti, limitato al massimo configurato
+     * @return la pagina di libri con il cursore della successiva;
+     *         termina con InvalidRequestException se il cursore o la dimensione non sono validi
+     */
+    Mono<BookPage> getBooksPage(String cursor, int size);
+
+    /**
+     * Recupera un libro dato il suo ID.
+     *
+     * @param id l'ID del libro
+     * @return il BookDTO corrispondente, vuoto se non esiste
+     */
+    Mono<BookDTO> getBookById(Long id);
+
+    /**
+     * Crea un nuovo libro.
+     *
+     * @param bookDTO il BookDTO da creare
+     * @return il BookDTO creato
+     */
+    Mono<BookDTO> createBook(BookDTO bookDTO);
+
+    /**
+     * Aggiorna i dati di un libro esistente.
+     *
+     * @param id l'ID del libro da aggiornare
+     * @param bookDTO il BookDTO con i nuovi dati
+     * @return il BookDTO aggiornato, vuoto se il libro non esiste
+     */
+    Mono<BookDTO> updateBook(Long id, BookDTO bookDTO);
+
+    /**
+     * Elimina un libro dato il suo ID.
+     *
+     * @param id l'ID del libro da eliminare
+     * @return true se il libro è stato eliminato, false altrimenti
+     */
+    Mono<Boolean> deleteBook(Long id);
+
+    /**
+     * Cerca i libri in base all'autore.
+     *
+     * @param author il nome dell'autore
+     * @return un Flux di BookDTO corrispondenti
+     */
+    Flux<BookDTO> findBooksByAuthor(String author);
+
+    /**
+     * Cerca i libri in base al genere.
+     *
+     * @param genre il genere da cercare
+     * @return un Flux di BookDTO corrispondenti
+     */
+    Flux<BookDTO> findBooksByGenre(String genre);
+
+    /**
+     * Cerca i libri per titolo utilizzando una ricerca parziale (ignorando il case).
+     *
+     * @param title la stringa da cercare nel titolo
+     * @return un Flux di BookDTO corrispondenti
+     */
+    Flux<BookDTO> searchBooksByTitle(String title);
+
+    /**
+     * Cerca i libri pubblicati prima di un certo anno.
+     *
+     * @param year l'anno limite (il metodo restituisce libri con anno minore)
+     * @return un Flux di BookDTO corrispondenti
+     */
+    Flux<BookDTO> findBooksByAnnoLessThan(int year);
+
+    /**
+     * Conta il numero di libri scritti dall'autore specificato.
+     *
+     * @param author l'autore da cercare
+     * @return il numero di libri trovati
+     */
+    Mono<Long> countBooksByAuthor(String author);
+
+    /**
+     * Recupera i libri ordinati per anno in ordine discendente.
+     *
+     * @return un Flux di BookDTO ordinato per anno discendente
+     */
+    Flux<BookDTO> getBooksSortedByAnnoDesc();
+
+    /**
+     * Cerca i libri che corrispondono al titolo e/o autore specificato.
+     *
+     * @param title la stringa da cercare nel titolo
+     * @param author la stringa da cercare nell'autore
+     * @return un Flux di BookDTO corrispondenti
+     */
+    Flux<BookDTO> findBooksByTitleOrAuthor(String title, String author);
+}
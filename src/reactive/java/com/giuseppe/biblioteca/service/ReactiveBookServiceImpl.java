@@ -0,0 +1,166 @@
+package com.giuseppe.biblioteca.service;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.model.BookRow;
+import com.giuseppe.biblioteca.repository.ReactiveBookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementazione R2DBC dell'interfaccia IReactiveBookService, attiva con il profilo "reactive".
+ * Senza transaction manager R2DBC ogni istruzione va in commit da sola: l'evento di modifica
+ * viene pubblicato quando la scrittura è stata confermata, come fanno i listener dopo il commit JPA.
+ * Ogni scrittura apre un ticket del {@link CatalogWriteTracker} prima dell'istruzione e lo chiude dopo
+ * la pubblicazione, come fanno i commit JPA.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveBookServiceImpl implements IReactiveBookService {
+
+    private ReactiveBookRepository bookRepository;
+
+    private R2dbcEntityTemplate entityTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CatalogWriteTracker writeTracker;
+
+    private final int maxPageSize;
+
+    /**
+     * Inietta il repository reattivo dei libri.
+     *
+     * @param bookRepository il repository da usare
+     * @param entityTemplate il template usato per gli inserimenti con ID già assegnato
+     * @param eventPublisher il publisher degli eventi di modifica del catalogo
+     * @param writeTracker   il registro delle scritture il cui evento non è ancora stato applicato
+     * @param maxPageSize    la dimensione massima di una pagina
+     */
+    public ReactiveBookServiceImpl(ReactiveBookRepository bookRepository,
+                                   R2dbcEntityTemplate entityTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   CatalogWriteTracker writeTracker,
+                                   @Value("${biblioteca.pagination.max-size:100}") int maxPageSize) {
+        this.bookRepository = bookRepository;
+        this.entityTemplate = entityTemplate;
+        this.eventPublisher = eventPublisher;
+        this.writeTracker = writeTracker;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Converte una riga R2DBC in un BookDTO.
+     *
+     * @param row la riga da convertire
+     * @return il BookDTO risultante
+     */
+    private static BookDTO toDTO(BookRow row) {
+        return new BookDTO(row.id(), row.title(), row.author(), row.anno(), row.genre());
+    }
+
+    /**
+     * Esegue una scrittura con un ticket aperto, chiudendolo anche in caso di errore o cancellazione.
+     * Aprire e chiudere un ticket non blocca, quindi tutto resta sull'event loop.
+     *
+     * @param write la scrittura che pubblica il proprio evento
+     * @param <T>   il tipo del risultato
+     * @return la scrittura tracciata
+     */
+    private <T> Mono<T> tracked(Mono<T> write) {
+        return Mono.usingWhen(Mono.fromCallable(writeTracker::open), ticket -> write,
+                ticket -> Mono.fromRunnable(() -> writeTracker.close(ticket)));
+    }
+
+    @Override
+    public Flux<BookDTO> getAllBooks() {
+        return bookRepository.findAll().map(ReactiveBookServiceImpl::toDTO);
+    }
+
+    @Override
+    public Mono<BookPage> getBooksPage(String cursor, int size) {
+        if (size < 1)
+            return Mono.error(new InvalidRequestException("La dimensione della pagina deve essere positiva."));
+
+        int limit = Math.min(size, maxPageSize);
+        // Se ne chiede uno in più per sapere se esiste una pagina successiva senza fare un count.
+        return Mono.fromCallable(() -> cursor == null ? 0L : BookServiceImpl.decodeCursor(cursor))
+                .flatMap(afterId -> bookRepository.findByIdGreaterThan(afterId, limit + 1)
+                        .map(ReactiveBookServiceImpl::toDTO)
+                        .collectList())
+                .map(books -> books.size() <= limit
+                        ? new BookPage(books, null)
+                        : new BookPage(books.subList(0, limit), BookServiceImpl.encodeCursor(books.get(limit - 1).id())));
+    }
+
+    @Override
+    public Mono<BookDTO> getBookById(Long id) {
+        return bookRepository.findById(id).map(ReactiveBookServiceImpl::toDTO);
+    }
+
+    @Override
+    public Mono<BookDTO> createBook(BookDTO bookDTO) {
+        return tracked(bookRepository.nextId()
+                .flatMap(id -> entityTemplate.insert(
+                        new BookRow(id, bookDTO.title(), bookDTO.author(), bookDTO.year(), bookDTO.genre(), 0)))
+                .map(ReactiveBookServiceImpl::toDTO)
+                .doOnNext(created -> eventPublisher.publishEvent(CatalogChangeEvent.created(created))));
+    }
+
+    @Override
+    public Mono<BookDTO> updateBook(Long id, BookDTO bookDTO) {
+        return tracked(bookRepository.findById(id)
+                .flatMap(row -> bookRepository.save(
+                                new BookRow(id, bookDTO.title(), bookDTO.author(), bookDTO.year(), bookDTO.genre(), row.version()))
+                        .map(ReactiveBookServiceImpl::toDTO)
+                        .doOnNext(updated -> eventPublisher.publishEvent(CatalogChangeEvent.updated(toDTO(row), updated)))));
+    }
+
+    @Override
+    public Mono<Boolean> deleteBook(Long id) {
+        return tracked(bookRepository.deleteReturningById(id)
+                .map(ReactiveBookServiceImpl::toDTO)
+                .doOnNext(deleted -> eventPublisher.publishEvent(CatalogChangeEvent.deleted(deleted)))
+                .hasElement());
+    }
+
+    @Override
+    public Flux<BookDTO> findBooksByAuthor(String author) {
+        return bookRepository.findByAuthor(author).map(ReactiveBookServiceImpl::toDTO);
+    }
+
+    @Override
+    public Flux<BookDTO> findBooksByGenre(String genre) {
+        return bookRepository.findByGenre(genre).map(ReactiveBookServiceImpl::toDTO);
+    }
+
+    @Override
+    public Flux<BookDTO> searchBooksByTitle(String title) {
+        return bookRepository.findByTitleContainingIgnoreCase(title).map(ReactiveBookServiceImpl::toDTO);
+    }
+
+    @Override
+    public Flux<BookDTO> findBooksByAnnoLessThan(int year) {
+        return bookRepository.findByAnnoLessThan(year).map(ReactiveBookServiceImpl::toDTO);
+    }
+
+    @Override
+    public Mono<Long> countBooksByAuthor(String author) {
+        return bookRepository.countByAuthor(author);
+    }
+
+    @Override
+    public Flux<BookDTO> getBooksSortedByAnnoDesc() {
+        return bookRepository.findAllByOrderByAnnoDesc().map(ReactiveBookServiceImpl::toDTO);
+    }
+
+    @Override
+    public Flux<BookDTO> findBooksByTitleOrAuthor(String title, String author) {
+        return bookRepository.findByTitleOrAuthor(title, author).map(ReactiveBookServiceImpl::toDTO);
+    }
+}
@@ -0,0 +1,42 @@
+package com.giuseppe.biblioteca.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:threadingtest", "spring.threads.virtual.enabled=true"})
+@Import(ThreadingConfigTests.ThreadProbe.class)
+class ThreadingConfigTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    /**
+     * Con la modalità attiva le richieste vengono servite da virtual thread.
+     */
+    @Test
+    void requestsRunOnVirtualThreads() {
+        assertThat(rest.getForObject("/test/thread", Boolean.class)).isTrue();
+    }
+
+    /**
+     * Endpoint di prova che indica se la richiesta è servita da un virtual thread.
+     */
+    @TestConfiguration
+    @RestController
+    static class ThreadProbe {
+
+        @GetMapping("/test/thread")
+        boolean isVirtual() {
+            return Thread.currentThread().isVirtual();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.index.AuthorCounters;
+import com.giuseppe.biblioteca.index.TitleTrigramIndex;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BulkDeleteReport;
+import com.giuseppe.biblioteca.service.IBookService;
+import com.giuseppe.biblioteca.service.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:bulkdeletetest")
+class BookControllerBulkDeleteTests {
+
+    private static final String AUTHOR = "Autore Massivo A";
+
+    private static final String OTHER_AUTHOR = "Autore Massivo B";
+
+    private static final String GENRE = "Genere Massivo G";
+
+    private static final String OTHER_GENRE = "Genere Massivo H";
+
+    private static final int FROM = 1960;
+
+    private static final int TO = 1980;
+
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private IBookService bookService;
+
+    @Autowired
+    private AuthorCounters authorCounters;
+
+    @Autowired
+    private TitleTrigramIndex titleIndex;
+
+    /**
+     * Per ogni combinazione non vuota di autore, genere, anno minimo e anno massimo vengono eliminati
+     * esattamente i libri che rispettano tutti i filtri, e contatori e indice dei titoli seguono l'eliminazione.
+     */
+    @Test
+    void everyFilterCombinationDeletesExactlyTheMatchingBooks() {
+        for (int mask = 1; mask < 16; mask++) {
+            seed(mask);
+            List<BookDTO> before = bookService.getAllBooks();
+
+            Map<String, Object> filters = new LinkedHashMap<>();
+            Predicate<BookDTO> matches = book -> true;
+            if ((mask & 1) != 0) {
+                filters.put("author", AUTHOR);
+                matches = matches.and(book -> AUTHOR.equals(book.author()));
+            }
+            if ((mask & 2) != 0) {
+                filters.put("genre", GENRE);
+                matches = matches.and(book -> GENRE.equals(book.genre()));
+            }
+            if ((mask & 4) != 0) {
+                filters.put("from", FROM);
+                matches = matches.and(book -> book.year() >= FROM);
+            }
+            if ((mask & 8) != 0) {
+                filters.put("to", TO);
+                matches = matches.and(book -> book.year() <= TO);
+            }
+            List<BookDTO> expected = before.stream().filter(matches).toList();
+            assertThat(expected).as("filtri %s", filters).isNotEmpty();
+
+            ResponseEntity<BulkDeleteReport> response = delete(filters);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(response.getBody().deleted()).as("filtri %s", filters).isEqualTo(expected.size());
+
+            List<BookDTO> after = bookService.getAllBooks();
+            assertThat(after).as("filtri %s", filters)
+                    .containsExactlyInAnyOrderElementsOf(before.stream().filter(matches.negate()).toList());
+            assertDerivedStructuresFollow(expected, after);
+        }
+    }
+
+    /**
+     * L'eliminazione per ID rimuove solo i libri indicati, ignora gli ID inesistenti e aggiorna contatori e indice.
+     */
+    @Test
+    void deleteByIdsRemovesOnlyTheListedBooks() {
+        BookDTO first = bookService.createBook(new BookDTO(null, "Primo elenco", "Autore Elenco", 2001, "Elenco"));
+        BookDTO kept = bookService.createBook(new BookDTO(null, "Secondo elenco", "Autore Elenco", 2002, "Elenco"));
+        BookDTO third = bookService.createBook(new BookDTO(null, "Terzo elenco", "Autore Elenco", 2003, "Elenco"));
+
+        ResponseEntity<BulkDeleteReport> response = rest.exchange("/api/books?ids={a},{b},{c}", HttpMethod.DELETE, null,
+                BulkDeleteReport.class, first.id(), third.id(), MISSING_ID);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().deleted()).isEqualTo(2);
+
+        assertThat(bookService.getBookById(first.id())).isEmpty();
+        assertThat(bookService.getBookById(third.id())).isEmpty();
+        assertThat(bookService.getBookById(kept.id())).contains(kept);
+        assertThat(authorCounters.count("Autore Elenco")).isEqualTo(1);
+        assertThat(titleIndex.search("elenco")).contains(List.of(kept.id()));
+    }
+
+    /**
+     * L'eliminazione singola restituisce la riga eliminata una sola volta e rispetta la versione indicata.
+     */
+    @Test
+    void deleteByIdRemovesTheBookOnce() {
+        BookDTO book = bookService.createBook(new BookDTO(null, "Unico esemplare", "Autore Singolo", 1999, "Singolo"));
+        String stale = rest.getForEntity("/api/books/{id}", BookDTO.class, book.id()).getHeaders().getETag();
+        bookService.updateBook(book.id(), new BookDTO(null, "Unico esemplare", "Autore Singolo", 2000, "Singolo"));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(stale);
+        assertThat(rest.exchange("/api/books/{id}", HttpMethod.DELETE, new HttpEntity<>(headers), String.class, book.id())
+                .getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(authorCounters.count("Autore Singolo")).isEqualTo(1);
+
+        assertThat(bookService.deleteBook(book.id())).isTrue();
+        assertThat(bookService.deleteBook(book.id())).isFalse();
+        assertThat(authorCounters.count("Autore Singolo")).isZero();
+        assertThat(titleIndex.search("unico esemplare")).contains(List.of());
+    }
+
+    /**
+     * Senza filtri, o con ID e filtri insieme, la richiesta viene respinta senza eliminare nulla.
+     */
+    @Test
+    void missingOrMixedFiltersAreRejected() {
+        BookDTO book = bookService.createBook(new BookDTO(null, "Da non eliminare", "Autore Protetto", 1990, "Protetto"));
+
+        ResponseEntity<String> empty = rest.exchange("/api/books", HttpMethod.DELETE, null, String.class);
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(empty.getBody()).isEqualTo(ApiErrors.NO_FILTER.getBody());
+
+        ResponseEntity<String> mixed = rest.exchange("/api/books?ids={id}&author={author}", HttpMethod.DELETE, null,
+                String.class, book.id(), book.author());
+        assertThat(mixed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(mixed.getBody()).isEqualTo(ApiErrors.IDS_AND_FILTERS.getBody());
+
+        assertThat(rest.exchange("/api/books?from={from}&to={to}", HttpMethod.DELETE, null, String.class, 1995, 1985)
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThatThrownBy(() -> bookService.deleteBooksMatching(null, null, null, null))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThat(bookService.deleteBooks(List.of())).isZero();
+        assertThat(bookService.getBookById(book.id())).contains(book);
+    }
+
+    /**
+     * Inserisce ogni combinazione di autore, genere e anno (prima, dentro e dopo l'intervallo).
+     */
+    private void seed(int round) {
+        List<BookDTO> books = new ArrayList<>();
+        for (String author : List.of(AUTHOR, OTHER_AUTHOR))
+            for (String genre : List.of(GENRE, OTHER_GENRE))
+                for (int year : List.of(FROM - 10, FROM, (FROM + TO) / 2, TO, TO + 10))
+                    books.add(new BookDTO(null, "Massivo " + round + " " + books.size(), author, year, genre));
+        bookService.createBooks(books.iterator());
+    }
+
+    private void assertDerivedStructuresFollow(List<BookDTO> deleted, List<BookDTO> remaining) {
+        for (String author : List.of(AUTHOR, OTHER_AUTHOR))
+            assertThat(authorCounters.count(author)).as(author)
+                    .isEqualTo(remaining.stream().filter(book -> author.equals(book.author())).count());
+        for (BookDTO book : deleted)
+            assertThat(titleIndex.search(book.title())).as(book.title())
+                    .hasValueSatisfying(ids -> assertThat(ids).doesNotContain(book.id()));
+    }
+
+    private ResponseEntity<BulkDeleteReport> delete(Map<String, Object> filters) {
+        StringJoiner query = new StringJoiner("&", "/api/books?", "");
+        filters.keySet().forEach(name -> query.add(name + "={" + name + "}"));
+        return rest.exchange(query.toString(), HttpMethod.DELETE, null, BulkDeleteReport.class, filters);
+    }
+}
@@ -0,0 +1,128 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.index.AuthorCounters;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BulkInsertReport;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:bulkinserttest", "biblioteca.bulk.chunk-size=4"})
+class BookControllerBulkInsertTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private IBookService bookService;
+
+    @Autowired
+    private AuthorCounters authorCounters;
+
+    /**
+     * Un elenco JSON viene inserito a blocchi della dimensione configurata, con un report per ogni blocco.
+     */
+    @Test
+    void jsonBulkInsertsInChunks() {
+        List<BookDTO> books = books("Autore Blocchi", 10);
+        ResponseEntity<BulkInsertReport> response = rest.postForEntity("/api/books/bulk", books, BulkInsertReport.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        BulkInsertReport report = response.getBody();
+        assertThat(report.inserted()).isEqualTo(10);
+        assertThat(report.chunks()).extracting(BulkInsertReport.ChunkReport::chunk).containsExactly(0, 1, 2);
+        assertThat(report.chunks()).extracting(BulkInsertReport.ChunkReport::size).containsExactly(4, 4, 2);
+        assertThat(report.chunks()).allSatisfy(chunk -> assertThat(chunk.rowsPerSecond()).isPositive());
+        assertThat(saved("Autore Blocchi")).containsExactlyInAnyOrderElementsOf(books);
+        assertThat(authorCounters.count("Autore Blocchi")).isEqualTo(10);
+    }
+
+    /**
+     * Lo stesso inserimento funziona leggendo il corpo NDJSON in streaming, una riga per libro.
+     */
+    @Test
+    void ndjsonBulkInsertsInChunks() {
+        List<BookDTO> books = books("Autore Righe", 6);
+        ResponseEntity<BulkInsertReport> response = ndjson(lines(books), BulkInsertReport.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().inserted()).isEqualTo(6);
+        assertThat(response.getBody().chunks()).extracting(BulkInsertReport.ChunkReport::size).containsExactly(4, 2);
+        assertThat(saved("Autore Righe")).containsExactlyInAnyOrderElementsOf(books);
+    }
+
+    /**
+     * Un errore a metà stream risponde 400, ma i blocchi già confermati restano salvati;
+     * il blocco in corso di lettura non viene inserito.
+     */
+    @Test
+    void committedChunksSurviveAMidStreamError() {
+        List<BookDTO> books = books("Autore Interrotto", 5);
+        ResponseEntity<String> malformed = ndjson(lines(books) + "{\"title\":\n", String.class);
+        assertThat(malformed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(malformed.getBody()).startsWith("NDJSON non valido");
+        assertThat(saved("Autore Interrotto")).containsExactlyInAnyOrderElementsOf(books.subList(0, 4));
+        assertThat(authorCounters.count("Autore Interrotto")).isEqualTo(4);
+
+        List<BookDTO> withId = books("Autore Con Id", 5);
+        ResponseEntity<String> rejected = ndjson(lines(withId)
+                + "{\"id\":1,\"title\":\"Con id\",\"author\":\"Autore Con Id\",\"year\":2000,\"genre\":\"Test\"}\n", String.class);
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rejected.getBody()).isEqualTo(ApiErrors.ID_NOT_ALLOWED.getBody());
+        assertThat(saved("Autore Con Id")).containsExactlyInAnyOrderElementsOf(withId.subList(0, 4));
+    }
+
+    /**
+     * Nell'elenco JSON un ID viene rifiutato prima di inserire qualsiasi libro.
+     */
+    @Test
+    void jsonWithAnIdInsertsNothing() {
+        List<BookDTO> books = List.of(new BookDTO(null, "Senza id", "Autore Rifiutato", 2000, "Test"),
+                new BookDTO(7L, "Con id", "Autore Rifiutato", 2000, "Test"));
+        ResponseEntity<String> response = rest.postForEntity("/api/books/bulk", books, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo(ApiErrors.ID_NOT_ALLOWED.getBody());
+        assertThat(saved("Autore Rifiutato")).isEmpty();
+    }
+
+    private List<BookDTO> books(String author, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new BookDTO(null, "Massivo " + i, author, 2000 + i, "Test"))
+                .toList();
+    }
+
+    private String lines(List<BookDTO> books) {
+        StringBuilder body = new StringBuilder();
+        for (BookDTO book : books)
+            body.append("{\"title\":\"" + book.title() + "\",\"author\":\"" + book.author()
+                    + "\",\"year\":" + book.year() + ",\"genre\":\"" + book.genre() + "\"}\n");
+        return body.toString();
+    }
+
+    private <T> ResponseEntity<T> ndjson(String body, Class<T> type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/x-ndjson");
+        return rest.postForEntity("/api/books/bulk", new HttpEntity<>(body, headers), type);
+    }
+
+    /**
+     * I libri salvati dell'autore, senza ID per confrontarli con quelli inviati.
+     */
+    private List<BookDTO> saved(String author) {
+        return bookService.getAllBooks().stream()
+                .filter(book -> author.equals(book.author()))
+                .map(book -> new BookDTO(null, book.title(), book.author(), book.year(), book.genre()))
+                .toList();
+    }
+}
@@ -0,0 +1,118 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:concurrencytest")
+class BookControllerConcurrencyTests {
+
+    private static final int WRITERS = 8;
+
+    private static final int INCREMENTS_PER_WRITER = 25;
+
+    private static final int MAX_ATTEMPTS = 1000;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    /**
+     * Più client incrementano in parallelo l'anno dello stesso libro con il ciclo leggi-modifica-scrivi,
+     * inviando l'ETag letta in If-Match e riprovando dopo ogni 412: nessun incremento deve andare perso.
+     */
+    @Test
+    void conditionalPutsUnderContentionLoseNoUpdates() throws Exception {
+        BookDTO book = create(new BookDTO(null, "Contatore", "Autore", 0, "Test"));
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++)
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < INCREMENTS_PER_WRITER; i++)
+                        increment(book.id(), conflicts);
+                    return null;
+                }));
+            start.countDown();
+            for (Future<?> writer : writers)
+                writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        BookDTO result = rest.getForObject("/api/books/{id}", BookDTO.class, book.id());
+        assertThat(result.year()).isEqualTo(WRITERS * INCREMENTS_PER_WRITER);
+        assertThat(conflicts.get()).as("richieste respinte con 412").isPositive();
+    }
+
+    @Test
+    void staleEtagIsRejectedOnEveryConditionalWrite() {
+        BookDTO book = create(new BookDTO(null, "Dune", "Herbert", 1965, "Fantascienza"));
+        String stale = rest.getForEntity("/api/books/{id}", BookDTO.class, book.id()).getHeaders().getETag();
+        rest.put("/api/books/{id}", new BookDTO(null, "Dune", "Herbert", 1966, "Fantascienza"), book.id());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfMatch(stale);
+        BookDTO update = new BookDTO(null, "Dune", "Herbert", 1970, "Fantascienza");
+        assertThat(exchange(HttpMethod.PUT, book.id(), new HttpEntity<>(update, headers)).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(exchange(HttpMethod.PATCH, book.id(), new HttpEntity<>(Map.of("year", 1970), headers)).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(exchange(HttpMethod.DELETE, book.id(), new HttpEntity<>(headers)).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        headers.setIfMatch(rest.getForEntity("/api/books/{id}", BookDTO.class, book.id()).getHeaders().getETag());
+        assertThat(exchange(HttpMethod.DELETE, book.id(), new HttpEntity<>(headers)).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(exchange(HttpMethod.DELETE, book.id(), new HttpEntity<>(headers)).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private void increment(Long id, AtomicInteger conflicts) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            ResponseEntity<BookDTO> current = rest.getForEntity("/api/books/{id}", BookDTO.class, id);
+            BookDTO book = current.getBody();
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setIfMatch(current.getHeaders().getETag());
+            BookDTO next = new BookDTO(null, book.title(), book.author(), book.year() + 1, book.genre());
+            ResponseEntity<String> response = exchange(HttpMethod.PUT, id, new HttpEntity<>(next, headers));
+
+            if (response.getStatusCode() == HttpStatus.OK)
+                return;
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+            conflicts.incrementAndGet();
+        }
+        throw new AssertionError("Incremento non riuscito dopo " + MAX_ATTEMPTS + " tentativi");
+    }
+
+    private BookDTO create(BookDTO book) {
+        return rest.postForObject("/api/books", book, BookDTO.class);
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, Long id, HttpEntity<?> request) {
+        return rest.exchange("/api/books/{id}", method, request, String.class, id);
+    }
+}
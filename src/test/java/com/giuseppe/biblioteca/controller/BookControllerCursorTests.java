@@ -0,0 +1,115 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:cursortest", "biblioteca.pagination.max-size=10"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookControllerCursorTests {
+
+    private static final int BOOKS = 25;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private IBookService bookService;
+
+    @BeforeAll
+    void seed() {
+        bookService.createBooks(IntStream.range(0, BOOKS)
+                .mapToObj(i -> new BookDTO(null, "Cursore " + i, "Autore Cursore", 1950 + i, "Saggistica"))
+                .iterator());
+    }
+
+    /**
+     * Seguendo il cursore fino alla fine ogni libro compare una sola volta, in ordine di ID:
+     * un libro inserito durante la lettura compare in fondo, uno eliminato non sposta gli altri.
+     */
+    @Test
+    void cursorWalksTheWholeCatalogOnce() {
+        List<BookDTO> expected = new ArrayList<>(bookService.getAllBooks());
+        expected.sort(Comparator.comparing(BookDTO::id));
+        List<BookDTO> seen = new ArrayList<>();
+
+        BookPage page = page("/api/books?size={size}", 7);
+        seen.addAll(page.content());
+
+        BookDTO deleted = page.content().get(0);
+        assertThat(bookService.deleteBook(deleted.id())).isTrue();
+        expected.add(bookService.createBook(new BookDTO(null, "Cursore aggiunto", "Autore Cursore", 2000, "Saggistica")));
+
+        while (page.next() != null) {
+            page = page("/api/books?cursor={cursor}&size={size}", page.next(), 7);
+            assertThat(page.content()).hasSizeLessThanOrEqualTo(7);
+            seen.addAll(page.content());
+        }
+
+        assertThat(seen).extracting(BookDTO::id).doesNotHaveDuplicates().isSorted();
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    /**
+     * La dimensione richiesta viene limitata dal massimo configurato.
+     */
+    @Test
+    void sizeIsCappedByTheServer() {
+        BookPage page = page("/api/books?size={size}", 1000);
+        assertThat(page.content()).hasSize(10);
+        assertThat(page.next()).isNotNull();
+
+        assertThat(page("/api/books").content()).hasSize(10);
+    }
+
+    /**
+     * Cursori malformati o negativi e dimensioni non positive vengono respinti con 400.
+     */
+    @Test
+    void invalidCursorIsRejected() {
+        String negative = Base64.getUrlEncoder().encodeToString("-5".getBytes(StandardCharsets.US_ASCII));
+        for (String cursor : List.of("non-valido", negative, "%%%")) {
+            ResponseEntity<String> response = rest.getForEntity("/api/books?cursor={cursor}", String.class, cursor);
+            assertThat(response.getStatusCode()).as(cursor).isEqualTo(HttpStatus.BAD_REQUEST);
+            assertThat(response.getBody()).as(cursor).isEqualTo("Cursore non valido.");
+        }
+        assertThat(rest.getForEntity("/api/books?size=0", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * L'elenco completo, senza limite di dimensione, si ottiene solo chiedendolo con unpaged=true.
+     */
+    @Test
+    void unpagedIsOptIn() {
+        BookDTO[] all = rest.getForObject("/api/books?unpaged=true", BookDTO[].class);
+        assertThat(all).hasSizeGreaterThanOrEqualTo(BOOKS);
+        assertThat(all).containsExactlyInAnyOrderElementsOf(bookService.getAllBooks());
+
+        assertThat(page("/api/books?unpaged=false").content()).hasSize(10);
+    }
+
+    private BookPage page(String url, Object... variables) {
+        ResponseEntity<BookPage> response = rest.getForEntity(url, BookPage.class, variables);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
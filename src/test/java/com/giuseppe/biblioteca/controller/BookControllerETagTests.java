@@ -0,0 +1,85 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:etagtest")
+class BookControllerETagTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    /**
+     * Reinviando l'ETag dell'elenco in If-None-Match si riceve 304 senza corpo finché il catalogo non cambia;
+     * dopo una scrittura l'ETag cambia e la stessa richiesta riceve di nuovo 200.
+     */
+    @Test
+    void listAnswersNotModifiedUntilTheCatalogChanges() {
+        create(new BookDTO(null, "Il barone rampante", "Italo Calvino", 1957, "Romanzo"));
+        ResponseEntity<String> first = get("/api/books", null);
+        String etag = first.getHeaders().getETag();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).isNotNull();
+
+        ResponseEntity<String> unchanged = get("/api/books", etag);
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+        assertThat(get("/api/books?unpaged=true", etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        create(new BookDTO(null, "Il cavaliere inesistente", "Italo Calvino", 1959, "Romanzo"));
+        ResponseEntity<String> changed = get("/api/books", etag);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    /**
+     * Il singolo libro ha una propria ETag: 304 finché non cambia, nuova ETag dopo PUT e PATCH,
+     * mentre la modifica di un altro libro la lascia invariata.
+     */
+    @Test
+    void bookAnswersNotModifiedUntilItIsWritten() {
+        BookDTO book = create(new BookDTO(null, "Marcovaldo", "Italo Calvino", 1963, "Racconti"));
+        BookDTO other = create(new BookDTO(null, "Palomar", "Italo Calvino", 1983, "Romanzo"));
+        String etag = get("/api/books/{id}", null, book.id()).getHeaders().getETag();
+        assertThat(etag).isNotNull();
+        assertThat(get("/api/books/{id}", etag, book.id()).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        rest.put("/api/books/{id}", new BookDTO(null, "Palomar", "Italo Calvino", 1984, "Romanzo"), other.id());
+        assertThat(get("/api/books/{id}", etag, book.id()).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        rest.put("/api/books/{id}", new BookDTO(null, "Marcovaldo", "Italo Calvino", 1966, "Racconti"), book.id());
+        ResponseEntity<String> afterPut = get("/api/books/{id}", etag, book.id());
+        assertThat(afterPut.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String putEtag = afterPut.getHeaders().getETag();
+        assertThat(putEtag).isNotEqualTo(etag);
+
+        rest.exchange("/api/books/{id}", HttpMethod.PATCH, new HttpEntity<>(Map.of("year", 1963)), BookDTO.class, book.id());
+        ResponseEntity<String> afterPatch = get("/api/books/{id}", putEtag, book.id());
+        assertThat(afterPatch.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterPatch.getHeaders().getETag()).isNotIn(etag, putEtag);
+    }
+
+    private ResponseEntity<String> get(String url, String ifNoneMatch, Object... variables) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null)
+            headers.setIfNoneMatch(ifNoneMatch);
+        return rest.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class, variables);
+    }
+
+    private BookDTO create(BookDTO book) {
+        return rest.postForObject("/api/books", book, BookDTO.class);
+    }
+}
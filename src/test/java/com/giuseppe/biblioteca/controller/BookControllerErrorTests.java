@@ -0,0 +1,120 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.service.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:errortest")
+class BookControllerErrorTests {
+
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Test
+    void missingBookIsNotFoundOnEveryMethod() {
+        BookDTO book = new BookDTO(null, "Dune", "Herbert", 1965, "Fantascienza");
+        assertThat(exchange(HttpMethod.GET, "/api/books/{id}", null, MISSING_ID).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(exchange(HttpMethod.PUT, "/api/books/{id}", book, MISSING_ID).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(exchange(HttpMethod.PATCH, "/api/books/{id}", Map.of("year", 1966), MISSING_ID).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(exchange(HttpMethod.DELETE, "/api/books/{id}", null, MISSING_ID).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void searchMissesAndInvalidInputUseFixedBodies() {
+        ResponseEntity<String> miss = exchange(HttpMethod.GET, "/api/books/by-author/{author}", null, "Nessuno");
+        assertThat(miss.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(miss.getBody()).isEqualTo(ApiErrors.NO_BOOKS_BY_AUTHOR.getBody());
+
+        ResponseEntity<String> numeric = exchange(HttpMethod.GET, "/api/books/by-genre/{genre}", null, "123");
+        assertThat(numeric.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(numeric.getBody()).isEqualTo(ApiErrors.NUMERIC_GENRE.getBody());
+    }
+
+    @Test
+    void newAuthorsAndGenresAreFoundRightAfterCreation() {
+        BookDTO book = new BookDTO(null, "Il nome della rosa", "Autore Appena Creato", 1980, "Genere Appena Creato");
+        assertThat(exchange(HttpMethod.GET, "/api/books/by-author/{author}", null, book.author()).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(exchange(HttpMethod.POST, "/api/books", book).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(exchange(HttpMethod.GET, "/api/books/by-author/{author}", null, book.author()).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+        assertThat(exchange(HttpMethod.GET, "/api/books/count/author/{author}", null, book.author()).getBody())
+                .isEqualTo("1");
+        assertThat(exchange(HttpMethod.GET, "/api/books/by-genre/{genre}", null, book.genre()).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void yearRangeAndNewestValidateTheirParameters() {
+        ResponseEntity<String> inverted = exchange(HttpMethod.GET, "/api/books/between?from={from}&to={to}", null, 1950, 1900);
+        assertThat(inverted.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(inverted.getBody()).isEqualTo(ApiErrors.INVALID_YEAR_RANGE.getBody());
+
+        ResponseEntity<String> empty = exchange(HttpMethod.GET, "/api/books/between?from={from}&to={to}", null, 1, 2);
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(empty.getBody()).isEqualTo(ApiErrors.NO_BOOKS_IN_YEAR_RANGE.getBody());
+
+        assertThat(exchange(HttpMethod.GET, "/api/books/newest?limit={limit}", null, 0).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void serviceValidationErrorsAreMappedToBadRequest() {
+        ResponseEntity<String> cursor = exchange(HttpMethod.GET, "/api/books?cursor={cursor}", null, "non-valido");
+        assertThat(cursor.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(cursor.getBody()).isEqualTo("Cursore non valido.");
+
+        ResponseEntity<String> ndjson = rest.exchange("/api/books/bulk", HttpMethod.POST,
+                new HttpEntity<>("{\"title\":", ndjsonHeaders()), String.class);
+        assertThat(ndjson.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(ndjson.getBody()).startsWith("NDJSON non valido");
+    }
+
+    @Test
+    void onlyInvalidRequestsAreMappedToBadRequest() {
+        ExceptionHandlerMethodResolver resolver = new ExceptionHandlerMethodResolver(BookExceptionHandler.class);
+        assertThat(resolver.resolveMethod(new InvalidRequestException("Cursore non valido.")).getName())
+                .isEqualTo("invalidRequest");
+        assertThat(resolver.resolveMethod(new IllegalArgumentException("errore interno")).getName())
+                .isEqualTo("unexpected");
+    }
+
+    @Test
+    void missingRequiredParameterKeepsSpringStatus() {
+        assertThat(exchange(HttpMethod.GET, "/api/books/search/title", null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(exchange(HttpMethod.GET, "/api/books/newest?limit={limit}", null, "venti").getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private HttpHeaders ndjsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/x-ndjson");
+        return headers;
+    }
+
+    private ResponseEntity<String> exchange(HttpMethod method, String url, Object body, Object... variables) {
+        return rest.exchange(url, method, new HttpEntity<>(body), String.class, variables);
+    }
+}
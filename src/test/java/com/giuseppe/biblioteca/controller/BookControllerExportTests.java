@@ -0,0 +1,96 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.service.IBookService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:exporttest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookControllerExportTests {
+
+    private static final int BOOKS = 1500;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private IBookService bookService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void seed() {
+        // Più libri dell'intervallo di flush, così lo stream viene svuotato anche a metà export.
+        bookService.createBooks(IntStream.range(0, BOOKS)
+                .mapToObj(i -> new BookDTO(null, "Esportato \"" + i + "\"", "Autore Export", 1900 + i % 100, "Saggistica"))
+                .iterator());
+    }
+
+    /**
+     * L'export risponde con il tipo NDJSON e scrive un libro per riga, ciascuna un JSON valido, in ordine di ID.
+     */
+    @Test
+    void exportWritesOneJsonLinePerBookInIdOrder() throws IOException {
+        ResponseEntity<String> response = rest.getForEntity("/api/books/export", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/x-ndjson"));
+        assertThat(response.getBody()).endsWith("\n");
+
+        List<BookDTO> exported = new ArrayList<>();
+        for (String line : response.getBody().split("\n"))
+            exported.add(objectMapper.readValue(line, BookDTO.class));
+
+        assertThat(exported).hasSize(BOOKS);
+        assertThat(exported).extracting(BookDTO::id).isSorted().doesNotHaveDuplicates();
+        assertThat(exported).containsExactlyInAnyOrderElementsOf(bookService.getAllBooks());
+    }
+
+    /**
+     * Le entità lette vengono staccate man mano: a fine export il persistence context è vuoto anche se
+     * è condiviso con il chiamante, come accade con open-in-view sul thread asincrono della risposta.
+     */
+    @Test
+    void exportLeavesNoManagedEntities() {
+        int managed = transactionTemplate.execute(status -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                bookService.exportBooks(out);
+            } catch (IOException ioex) {
+                throw new UncheckedIOException(ioex);
+            }
+            assertThat(out.toString(StandardCharsets.UTF_8).lines()).hasSize(BOOKS);
+            return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+        });
+        assertThat(managed).isZero();
+    }
+}
@@ -0,0 +1,166 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookFacets;
+import com.giuseppe.biblioteca.model.FacetCount;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:facetstest", "biblioteca.facets.author-limit=3"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookControllerFacetsTests {
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private IBookService bookService;
+
+    @BeforeAll
+    void seed() {
+        bookService.createBooks(List.of(
+                new BookDTO(null, "Il fu Mattia Pascal", "Luigi Pirandello", 1904, "Romanzo"),
+                new BookDTO(null, "Uno, nessuno e centomila", "Luigi Pirandello", 1926, "Romanzo"),
+                new BookDTO(null, "Sei personaggi in cerca d'autore", "Luigi Pirandello", 1921, "Teatro"),
+                new BookDTO(null, "Il giorno della civetta", "Leonardo Sciascia", 1961, "Romanzo"),
+                new BookDTO(null, "A ciascuno il suo", "Leonardo Sciascia", 1966, "Romanzo"),
+                new BookDTO(null, "Todo modo", "Leonardo Sciascia", 1974, "Romanzo"),
+                new BookDTO(null, "Ragazzi di vita", "Pier Paolo Pasolini", 1955, "Romanzo"),
+                new BookDTO(null, "Scritti corsari", "Pier Paolo Pasolini", 1975, "Saggistica"),
+                new BookDTO(null, "Ossi di seppia", "Eugenio Montale", 1925, "Poesia"),
+                new BookDTO(null, "Le città invisibili", "Italo Calvino", 1972, "Romanzo")).iterator());
+    }
+
+    /**
+     * Senza filtri i conteggi per genere, autore e decennio coprono l'intero catalogo,
+     * con gli autori limitati ai più numerosi.
+     */
+    @Test
+    void unfilteredFacetsCountTheWholeCatalog() {
+        assertFacets(facets("/api/books/facets"), book -> true);
+    }
+
+    /**
+     * Ogni filtro, da solo o combinato, restringe allo stesso modo tutte le faccette.
+     */
+    @Test
+    void filtersNarrowEveryFacet() {
+        assertFacets(facets("/api/books/facets?author={author}", "Leonardo Sciascia"),
+                book -> book.author().equals("Leonardo Sciascia"));
+        assertFacets(facets("/api/books/facets?genre={genre}", "Romanzo"),
+                book -> book.genre().equals("Romanzo"));
+        assertFacets(facets("/api/books/facets?title={title}", "IL "),
+                book -> book.title().toUpperCase(Locale.ROOT).contains("IL "));
+        assertFacets(facets("/api/books/facets?before={before}", 1960),
+                book -> book.year() < 1960);
+        assertFacets(facets("/api/books/facets?genre={genre}&before={before}", "Romanzo", 1970),
+                book -> book.genre().equals("Romanzo") && book.year() < 1970);
+
+        BookFacets none = facets("/api/books/facets?author={author}&genre={genre}", "Italo Calvino", "Teatro");
+        assertThat(none.total()).isZero();
+        assertThat(none.genres()).isEmpty();
+        assertThat(none.authors()).isEmpty();
+        assertThat(none.decades()).isEmpty();
+
+        assertThat(rest.getForEntity("/api/books/facets?before={before}", String.class, "ieri").getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Gli anni vengono raggruppati per decennio, indicato dal primo anno, in ordine cronologico:
+     * gli estremi di un decennio finiscono nello stesso gruppo, l'anno successivo nel gruppo seguente.
+     */
+    @Test
+    void yearsAreBucketedByDecade() {
+        bookService.createBooks(List.of(
+                new BookDTO(null, "Decennio A", "Autore Decenni", 1980, "Decenni"),
+                new BookDTO(null, "Decennio B", "Autore Decenni", 1989, "Decenni"),
+                new BookDTO(null, "Decennio C", "Autore Decenni", 1990, "Decenni"),
+                new BookDTO(null, "Decennio D", "Autore Decenni", 2009, "Decenni")).iterator());
+
+        assertThat(facets("/api/books/facets?genre={genre}", "Decenni").decades()).containsExactly(
+                new FacetCount("1980", 2), new FacetCount("1990", 1), new FacetCount("2000", 1));
+    }
+
+    /**
+     * Gli anni negativi vengono arrotondati per difetto: -5 appartiene al decennio -10 e non a quello di 5.
+     */
+    @Test
+    void negativeYearsAreBucketedByFloor() {
+        bookService.createBooks(List.of(
+                new BookDTO(null, "Antico A", "Autore Antico", -5, "Antichi"),
+                new BookDTO(null, "Antico B", "Autore Antico", -10, "Antichi"),
+                new BookDTO(null, "Antico C", "Autore Antico", -11, "Antichi"),
+                new BookDTO(null, "Antico D", "Autore Antico", 5, "Antichi")).iterator());
+
+        assertThat(facets("/api/books/facets?genre={genre}", "Antichi").decades()).containsExactly(
+                new FacetCount("-20", 1), new FacetCount("-10", 2), new FacetCount("0", 1));
+    }
+
+    /**
+     * Dopo una scrittura le faccette già in cache vengono ricalcolate.
+     */
+    @Test
+    void cachedFacetsFollowWrites() {
+        BookFacets before = facets("/api/books/facets?genre={genre}", "Fumetto");
+        assertThat(before.total()).isZero();
+        assertThat(facets("/api/books/facets?genre={genre}", "Fumetto")).isEqualTo(before);
+
+        BookDTO created = bookService.createBook(new BookDTO(null, "Corto Maltese", "Hugo Pratt", 1967, "Fumetto"));
+        BookFacets afterCreate = facets("/api/books/facets?genre={genre}", "Fumetto");
+        assertThat(afterCreate.total()).isEqualTo(1);
+        assertThat(afterCreate.authors()).containsExactly(new FacetCount("Hugo Pratt", 1));
+
+        bookService.updateBook(created.id(), new BookDTO(null, "Corto Maltese", "Hugo Pratt", 1977, "Fumetto"));
+        assertThat(facets("/api/books/facets?genre={genre}", "Fumetto").decades())
+                .containsExactly(new FacetCount("1970", 1));
+
+        bookService.deleteBook(created.id());
+        assertThat(facets("/api/books/facets?genre={genre}", "Fumetto").total()).isZero();
+    }
+
+    private BookFacets facets(String url, Object... variables) {
+        return rest.getForObject(url, BookFacets.class, variables);
+    }
+
+    /**
+     * Confronta le faccette con i conteggi calcolati sui libri del catalogo che rispettano il filtro.
+     */
+    private void assertFacets(BookFacets facets, Predicate<BookDTO> filter) {
+        List<BookDTO> books = bookService.getAllBooks().stream().filter(filter).toList();
+        assertThat(facets.total()).isEqualTo(books.size());
+        assertThat(facets.genres()).isEqualTo(byCount(books, BookDTO::genre));
+        assertThat(facets.authors()).isEqualTo(byCount(books, BookDTO::author).stream().limit(3).toList());
+        assertThat(facets.decades()).isEqualTo(count(books, book -> String.valueOf(Math.floorDiv(book.year(), 10) * 10)).stream()
+                .sorted(Comparator.comparingInt(facet -> Integer.parseInt(facet.value())))
+                .toList());
+    }
+
+    private static List<FacetCount> byCount(List<BookDTO> books, Function<BookDTO, String> value) {
+        return count(books, value).stream()
+                .sorted(Comparator.comparingLong(FacetCount::books).reversed().thenComparing(FacetCount::value))
+                .toList();
+    }
+
+    private static List<FacetCount> count(List<BookDTO> books, Function<BookDTO, String> value) {
+        Map<String, Long> counts = books.stream().collect(Collectors.groupingBy(value, Collectors.counting()));
+        return counts.entrySet().stream().map(entry -> new FacetCount(entry.getKey(), entry.getValue())).toList();
+    }
+}
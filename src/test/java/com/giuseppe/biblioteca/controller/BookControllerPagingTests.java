@@ -0,0 +1,107 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookSlice;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.datasource.url=jdbc:h2:mem:pagingtest", "biblioteca.pagination.max-size=10"})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookControllerPagingTests {
+
+    private static final String AUTHOR = "Autore Prolifico";
+
+    private static final int BOOKS = 25;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private IBookService bookService;
+
+    @BeforeAll
+    void seed() {
+        // Anni ripetuti, così l'ordinamento per anno ha parità che l'ID deve risolvere.
+        bookService.createBooks(IntStream.range(0, BOOKS)
+                .mapToObj(i -> new BookDTO(null, "Titolo " + i, AUTHOR, 1900 + i % 5, "Saggistica"))
+                .iterator());
+    }
+
+    /**
+     * Scorrendo le pagine ordinate per anno fino a hasNext=false ogni libro compare una sola volta,
+     * nell'ordine richiesto, e nessuna pagina supera il massimo configurato.
+     */
+    @Test
+    void slicesCoverEveryBookOnceInOrder() {
+        List<BookDTO> seen = new ArrayList<>();
+        BookSlice slice;
+        int page = 0;
+        do {
+            slice = get("/api/books/by-author/{author}?page={page}&size=50&sort=-year", AUTHOR, page++).getBody();
+            assertThat(slice.size()).isEqualTo(10);
+            assertThat(slice.content()).hasSizeLessThanOrEqualTo(10);
+            assertThat(slice.totalElements()).isNull();
+            seen.addAll(slice.content());
+        } while (slice.hasNext());
+
+        assertThat(seen).hasSize(BOOKS);
+        assertThat(seen).extracting(BookDTO::id).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo((a, b) -> a.year() != b.year()
+                ? Integer.compare(b.year(), a.year())
+                : Long.compare(a.id(), b.id()));
+    }
+
+    @Test
+    void countAddsTotals() {
+        BookSlice page = get("/api/books/by-genre/{genre}?count=true", "Saggistica").getBody();
+        assertThat(page.totalElements()).isEqualTo(BOOKS);
+        assertThat(page.totalPages()).isEqualTo(3);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void everyFinderAcceptsPaging() {
+        assertThat(get("/api/books/search/title?title={title}&size=3", "titolo").getBody().content()).hasSize(3);
+        assertThat(get("/api/books/before/{year}?size=3", 1902).getBody().content()).hasSize(3);
+        BookSlice titleOrAuthor = get("/api/books/search/title-or-author?title={title}&author={author}&size=3&count=true",
+                "Titolo 0", AUTHOR).getBody();
+        assertThat(titleOrAuthor.content()).hasSize(3);
+        assertThat(titleOrAuthor.totalElements()).isEqualTo(BOOKS);
+    }
+
+    @Test
+    void pageAfterTheLastIsEmptyButFound() {
+        ResponseEntity<BookSlice> beyond = get("/api/books/by-author/{author}?page=99", AUTHOR);
+        assertThat(beyond.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(beyond.getBody().content()).isEmpty();
+        assertThat(beyond.getBody().hasNext()).isFalse();
+    }
+
+    @Test
+    void invalidPagingIsRejected() {
+        assertThat(rest.getForEntity("/api/books/by-author/{author}?sort=version", String.class, AUTHOR).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rest.getForEntity("/api/books/by-author/{author}?page=-1", String.class, AUTHOR).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(rest.getForEntity("/api/books/by-author/{author}?size=0", String.class, AUTHOR).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<BookSlice> get(String url, Object... variables) {
+        return rest.getForEntity(url, BookSlice.class, variables);
+    }
+}
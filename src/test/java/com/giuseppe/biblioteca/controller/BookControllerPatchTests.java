@@ -0,0 +1,128 @@
+package com.giuseppe.biblioteca.controller;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import com.giuseppe.biblioteca.service.CatalogVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:patchtest")
+class BookControllerPatchTests {
+
+    private static final long MISSING_ID = Long.MAX_VALUE;
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    /**
+     * Ogni campo può essere modificato da solo: cambia solo quello indicato, gli altri restano quelli salvati
+     * e la versione del libro viene incrementata a ogni modifica.
+     */
+    @Test
+    void onlySuppliedFieldsChange() {
+        BookDTO book = create(new BookDTO(null, "Il Gattopardo", "Tomasi di Lampedusa", 1958, "Romanzo"));
+        long version = bookRepository.findVersionById(book.id()).orElseThrow();
+
+        BookDTO expected = new BookDTO(book.id(), "Il Gattopardo (edizione critica)", book.author(), book.year(), book.genre());
+        assertPatched(book.id(), Map.of("title", expected.title()), expected);
+        assertThat(bookRepository.findVersionById(book.id())).contains(version + 1);
+
+        expected = new BookDTO(book.id(), expected.title(), "Giuseppe Tomasi di Lampedusa", expected.year(), expected.genre());
+        assertPatched(book.id(), Map.of("author", expected.author()), expected);
+
+        expected = new BookDTO(book.id(), expected.title(), expected.author(), 1957, expected.genre());
+        assertPatched(book.id(), Map.of("year", expected.year()), expected);
+
+        expected = new BookDTO(book.id(), expected.title(), expected.author(), expected.year(), "Romanzo storico");
+        assertPatched(book.id(), Map.of("genre", expected.genre()), expected);
+        assertThat(bookRepository.findVersionById(book.id())).contains(version + 4);
+
+        expected = new BookDTO(book.id(), "Il Gattopardo", expected.author(), 1958, expected.genre());
+        assertPatched(book.id(), Map.of("title", expected.title(), "year", expected.year()), expected);
+    }
+
+    /**
+     * I campi presenti ma null nel JSON equivalgono a campi omessi.
+     */
+    @Test
+    void explicitNullsLeaveFieldsUnchanged() {
+        BookDTO book = create(new BookDTO(null, "Lessico famigliare", "Natalia Ginzburg", 1963, "Romanzo"));
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("title", null);
+        patch.put("author", null);
+        patch.put("year", 1962);
+        assertPatched(book.id(), patch, new BookDTO(book.id(), book.title(), book.author(), 1962, book.genre()));
+    }
+
+    /**
+     * Il PATCH cambia l'ETag: quella precedente viene respinta con 412, quella nuova è accettata.
+     */
+    @Test
+    void patchBumpsTheVersion() {
+        BookDTO book = create(new BookDTO(null, "La coscienza di Zeno", "Italo Svevo", 1923, "Romanzo"));
+        String before = rest.getForEntity("/api/books/{id}", BookDTO.class, book.id()).getHeaders().getETag();
+
+        assertThat(patch(book.id(), Map.of("year", 1924), before).getStatusCode()).isEqualTo(HttpStatus.OK);
+        String after = rest.getForEntity("/api/books/{id}", BookDTO.class, book.id()).getHeaders().getETag();
+        assertThat(after).isNotEqualTo(before);
+
+        assertThat(patch(book.id(), Map.of("year", 1925), before).getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(patch(book.id(), Map.of("year", 1925), after).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(rest.getForObject("/api/books/{id}", BookDTO.class, book.id()).year()).isEqualTo(1925);
+    }
+
+    /**
+     * Un ID inesistente non tocca righe e risponde 404, anche con If-Match; un PATCH senza campi è respinto.
+     */
+    @Test
+    void missingBookAndEmptyPatchAreRejected() {
+        assertThat(patch(MISSING_ID, Map.of("year", 2000), null).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        String anyVersion = "\"" + catalogVersion.token(0) + "\"";
+        assertThat(patch(MISSING_ID, Map.of("year", 2000), anyVersion).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(bookRepository.findVersionById(MISSING_ID)).isEmpty();
+
+        BookDTO book = create(new BookDTO(null, "Il deserto dei Tartari", "Dino Buzzati", 1940, "Romanzo"));
+        ResponseEntity<String> empty = patch(book.id(), Map.of(), null);
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(empty.getBody()).isEqualTo(ApiErrors.EMPTY_PATCH.getBody());
+        assertThat(rest.getForObject("/api/books/{id}", BookDTO.class, book.id())).isEqualTo(book);
+    }
+
+    private void assertPatched(Long id, Map<String, Object> fields, BookDTO expected) {
+        ResponseEntity<BookDTO> response = rest.exchange("/api/books/{id}", HttpMethod.PATCH, new HttpEntity<>(fields),
+                BookDTO.class, id);
+        assertThat(response.getStatusCode()).as("PATCH %s", fields).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).as("PATCH %s", fields).isEqualTo(expected);
+        assertThat(rest.getForObject("/api/books/{id}", BookDTO.class, id)).as("PATCH %s", fields).isEqualTo(expected);
+    }
+
+    private ResponseEntity<String> patch(Long id, Map<String, Object> fields, String ifMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifMatch != null)
+            headers.setIfMatch(ifMatch);
+        return rest.exchange("/api/books/{id}", HttpMethod.PATCH, new HttpEntity<>(fields, headers), String.class, id);
+    }
+
+    private BookDTO create(BookDTO book) {
+        return rest.postForObject("/api/books", book, BookDTO.class);
+    }
+}
@@ -0,0 +1,166 @@
+package com.giuseppe.biblioteca.index;
+
+import com.giuseppe.biblioteca.model.AuthorCount;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.BookPatchDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import com.giuseppe.biblioteca.service.CatalogWriteTracker;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:authorcounterstest")
+class AuthorCountersTests {
+
+    private static final int WRITERS = 6;
+
+    private static final int WRITES_PER_WRITER = 60;
+
+    @Autowired
+    private AuthorCounters authorCounters;
+
+    @Autowired
+    private IBookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CatalogWriteTracker writeTracker;
+
+    /**
+     * Inserimento, cambio d'autore con PUT e PATCH ed eliminazione aggiornano i contatori senza riconciliazione.
+     */
+    @Test
+    void writesUpdateCountersIncrementally() {
+        BookDTO first = bookService.createBook(new BookDTO(null, "Ossi di seppia", "Montale Incrementale", 1925, "Poesia"));
+        BookDTO second = bookService.createBook(new BookDTO(null, "Le occasioni", "Montale Incrementale", 1939, "Poesia"));
+        assertThat(authorCounters.count("Montale Incrementale")).isEqualTo(2);
+
+        bookService.updateBook(first.id(), new BookDTO(null, "Ossi di seppia", "Ungaretti Incrementale", 1925, "Poesia"));
+        assertThat(authorCounters.count("Montale Incrementale")).isEqualTo(1);
+        assertThat(authorCounters.count("Ungaretti Incrementale")).isEqualTo(1);
+
+        bookService.patchBook(second.id(), new BookPatchDTO(null, "Ungaretti Incrementale", null, null));
+        assertThat(authorCounters.count("Montale Incrementale")).isZero();
+        assertThat(authorCounters.count("Ungaretti Incrementale")).isEqualTo(2);
+
+        bookService.patchBook(second.id(), new BookPatchDTO("La bufera e altro", null, null, null));
+        assertThat(authorCounters.count("Ungaretti Incrementale")).isEqualTo(2);
+
+        bookService.deleteBook(first.id());
+        assertThat(authorCounters.count("Ungaretti Incrementale")).isEqualTo(1);
+
+        assertThat(bookService.deleteBooks(List.of(second.id()))).isEqualTo(1);
+        assertThat(authorCounters.count("Ungaretti Incrementale")).isZero();
+        assertThat(authorCounters.reconcile().driftedAuthors()).isZero();
+    }
+
+    /**
+     * Una transazione annullata non modifica i contatori.
+     */
+    @Test
+    void rolledBackWritesAreNotCounted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            bookService.createBook(new BookDTO(null, "Annullato", "Autore Annullato", 2000, "Test"));
+            status.setRollbackOnly();
+        });
+        assertThat(authorCounters.count("Autore Annullato")).isZero();
+        assertThat(authorCounters.reconcile().driftedAuthors()).isZero();
+    }
+
+    /**
+     * Le riconciliazioni eseguite mentre altri thread scrivono non segnalano deriva e non contano due volte
+     * le modifiche confermate durante il GROUP BY: alla fine i contatori coincidono con la tabella.
+     */
+    @Test
+    void reconcilingDuringWritesReportsNoDriftAndCountsOnce() throws Exception {
+        List<String> authors = List.of("Autore Concorrente A", "Autore Concorrente B", "Autore Concorrente C");
+        CountDownLatch start = new CountDownLatch(1);
+        List<AuthorCounters.ReconciliationReport> reports = new ArrayList<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++)
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    write(authors);
+                    return null;
+                }));
+            start.countDown();
+            while (writers.stream().anyMatch(writer -> !writer.isDone()))
+                reports.add(authorCounters.reconcile());
+            for (Future<?> writer : writers)
+                writer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(reports).isNotEmpty();
+        assertThat(reports).allSatisfy(report -> assertThat(report.driftedAuthors()).isZero());
+
+        Map<String, Long> table = bookRepository.countGroupByAuthor().stream()
+                .collect(Collectors.toMap(AuthorCount::author, AuthorCount::books));
+        for (String author : authors)
+            assertThat(authorCounters.count(author)).as(author).isEqualTo(table.getOrDefault(author, 0L));
+        assertThat(authorCounters.reconcile().driftedAuthors()).isZero();
+    }
+
+    /**
+     * Se una modifica aperta prima del GROUP BY non applica il proprio evento entro il tempo massimo,
+     * la riconciliazione viene saltata senza toccare i contatori e senza bloccare le altre scritture.
+     */
+    @Test
+    void reconcileIsSkippedWhilePendingWritesOutlastTheTimeout() {
+        bookService.createBook(new BookDTO(null, "In attesa", "Autore In Attesa", 2010, "Test"));
+        long pending = writeTracker.open();
+        try {
+            assertThat(authorCounters.reconcile(Duration.ofMillis(100))).isNull();
+            bookService.createBook(new BookDTO(null, "Non bloccato", "Autore In Attesa", 2011, "Test"));
+            assertThat(authorCounters.count("Autore In Attesa")).isEqualTo(2);
+        } finally {
+            writeTracker.close(pending);
+        }
+        AuthorCounters.ReconciliationReport report = authorCounters.reconcile();
+        assertThat(report.driftedAuthors()).isZero();
+        assertThat(report.skippedAuthors()).isZero();
+    }
+
+    /**
+     * Esegue una sequenza casuale di inserimenti, cambi d'autore ed eliminazioni.
+     */
+    private void write(List<String> authors) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> mine = new ArrayList<>();
+        for (int i = 0; i < WRITES_PER_WRITER; i++) {
+            String author = authors.get(random.nextInt(authors.size()));
+            int action = mine.isEmpty() ? 0 : random.nextInt(3);
+            if (action == 0)
+                mine.add(bookService.createBook(new BookDTO(null, "Titolo " + i, author, 2000, "Test")).id());
+            else if (action == 1)
+                bookService.patchBook(mine.get(random.nextInt(mine.size())), new BookPatchDTO(null, author, null, null));
+            else
+                bookService.deleteBook(mine.remove(random.nextInt(mine.size())));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.giuseppe.biblioteca.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTests {
+
+    private static final int VALUES = 100_000;
+
+    @Test
+    void addedValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++)
+            filter.add("Autore " + i);
+
+        for (int i = 0; i < VALUES; i++)
+            assertThat(filter.mightContain("Autore " + i)).isTrue();
+        assertThat(filter.insertions()).isEqualTo(VALUES);
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++)
+            filter.add("Autore " + i);
+
+        int falsePositives = 0;
+        for (int i = 0; i < VALUES; i++)
+            if (filter.mightContain("Sconosciuto " + i))
+                falsePositives++;
+        assertThat(falsePositives / (double) VALUES).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    void emptyFilterRejectsEverything() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("Herbert")).isFalse();
+
+        filter.add("");
+        assertThat(filter.mightContain("")).isTrue();
+    }
+
+    @Test
+    void invalidFalsePositiveRateIsRejected() {
+        assertThatThrownBy(() -> new BloomFilter(10, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BloomFilter(10, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
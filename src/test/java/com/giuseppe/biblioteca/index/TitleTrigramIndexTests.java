@@ -0,0 +1,91 @@
+package com.giuseppe.biblioteca.index;
+
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.repository.BookRepository;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:trigramtest", "biblioteca.title-index.max-candidates=4"})
+class TitleTrigramIndexTests {
+
+    private static final List<String> QUERIES = List.of(
+            "strasse", "STRASSE", "straße", "kırmızı", "KIRMIZI", "kirmizi", "istanbul", "İstanbul",
+            "nome della", "ROSA", "sorelle", "xyz");
+
+    @Autowired
+    private TitleTrigramIndex titleIndex;
+
+    @Autowired
+    private IBookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    /**
+     * I candidati dell'indice comprendono tutti i libri del LIKE case-insensitive del database e la ricerca
+     * del servizio restituisce esattamente quelli, anche per i caratteri che cambiano lunghezza o forma
+     * passando al maiuscolo, dopo aggiornamenti ed eliminazioni e dopo una ricostruzione.
+     */
+    @Test
+    void indexMatchesTheLikeQuery() {
+        BookDTO strasse = bookService.createBook(new BookDTO(null, "Die Straße", "Autore Trigrammi", 1960, "Romanzo"));
+        bookService.createBook(new BookDTO(null, "Kırmızı Saçlı Kadın", "Autore Trigrammi", 2016, "Romanzo"));
+        BookDTO istanbul = bookService.createBook(new BookDTO(null, "İstanbul: Hatıralar ve Şehir", "Autore Trigrammi", 2003, "Memorie"));
+        bookService.createBook(new BookDTO(null, "Istanbul", "Autore Trigrammi", 2003, "Memorie"));
+        BookDTO rosa = bookService.createBook(new BookDTO(null, "Il nome della rosa", "Autore Trigrammi", 1980, "Romanzo"));
+        assertMatchesLike();
+
+        bookService.updateBook(rosa.id(), new BookDTO(null, "Le sorelle Materassi", "Autore Trigrammi", 1934, "Romanzo"));
+        bookService.updateBook(istanbul.id(), new BookDTO(null, "Il museo dell'innocenza", "Autore Trigrammi", 2008, "Romanzo"));
+        bookService.deleteBook(strasse.id());
+        assertMatchesLike();
+
+        titleIndex.build();
+        assertMatchesLike();
+    }
+
+    /**
+     * Un titolo che contiene tutti i trigrammi della ricerca ma non la sottostringa resta tra i candidati
+     * dell'indice e viene scartato dal servizio.
+     */
+    @Test
+    void nonContiguousTrigramsAreFilteredByTheService() {
+        BookDTO book = bookService.createBook(new BookDTO(null, "Rosso sole", "Autore Contiguo", 1970, "Romanzo"));
+
+        assertThat(titleIndex.search("ossole")).hasValueSatisfying(ids -> assertThat(ids).contains(book.id()));
+        assertThat(bookService.searchBooksByTitle("ossole")).isEmpty();
+        assertThat(bookService.searchBooksByTitle("rosso sole")).containsExactly(book);
+    }
+
+    /**
+     * Oltre il massimo di candidati l'indice si fa da parte e la ricerca per titolo passa al LIKE,
+     * restituendo comunque tutti i libri.
+     */
+    @Test
+    void tooManyCandidatesFallBackToLike() {
+        IntStream.range(0, 6).forEach(i ->
+                bookService.createBook(new BookDTO(null, "Cronaca affollata " + i, "Autore Numeroso", 1990 + i, "Saggistica")));
+
+        assertThat(titleIndex.search("affollata")).isEmpty();
+        assertThat(titleIndex.search("affollata 3")).hasValueSatisfying(ids -> assertThat(ids).hasSize(1));
+        assertThat(bookService.searchBooksByTitle("affollata")).hasSize(6);
+    }
+
+    private void assertMatchesLike() {
+        for (String query : QUERIES) {
+            List<Long> expected = bookRepository.findDTOByTitleContainingIgnoreCase(query).stream()
+                    .map(BookDTO::id).sorted().toList();
+            assertThat(titleIndex.search(query)).as(query)
+                    .hasValueSatisfying(ids -> assertThat(ids).isSorted().containsAll(expected));
+            assertThat(bookService.searchBooksByTitle(query)).as(query).extracting(BookDTO::id)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.giuseppe.biblioteca.metrics;
+
+import com.giuseppe.biblioteca.model.BookPage;
+import com.giuseppe.biblioteca.service.InvalidRequestException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceMetricsAspectTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ServiceMetricsAspect aspect = new ServiceMetricsAspect(registry);
+
+    /**
+     * Le chiamate riuscite vengono misurate da un timer etichettato per metodo, esito e fascia di dimensione,
+     * riusato dalle chiamate successive con le stesse etichette.
+     */
+    @Test
+    void successIsTimedByMethodOutcomeAndSize() throws Exception {
+        List<Integer> books = List.of(1, 2, 3);
+        assertThat(invoke("getAllBooks", () -> books)).isSameAs(books);
+        invoke("getAllBooks", () -> books);
+        invoke("getAllBooks", List::of);
+
+        assertThat(timer("getAllBooks", "success", "2-10").count()).isEqualTo(2);
+        assertThat(timer("getAllBooks", "success", "0").count()).isEqualTo(1);
+        assertThat(registry.find(ServiceMetricsAspect.CALLS_METRIC).tag("method", "getAllBooks").timers()).hasSize(2);
+        assertThat(registry.find(ServiceMetricsAspect.ERRORS_METRIC).counters()).isEmpty();
+    }
+
+    /**
+     * Un'eccezione viene rilanciata invariata, misurata con esito "error" e contata per metodo e tipo di eccezione.
+     */
+    @Test
+    void errorsAreTimedAndCountedByException() {
+        InvalidRequestException error = new InvalidRequestException("Cursore non valido.");
+        for (int i = 0; i < 2; i++)
+            assertThatThrownBy(() -> invoke("getBooksPage", () -> {
+                throw error;
+            })).isSameAs(error);
+
+        assertThat(timer("getBooksPage", "error", "none").count()).isEqualTo(2);
+        Counter errors = registry.find(ServiceMetricsAspect.ERRORS_METRIC)
+                .tag("method", "getBooksPage")
+                .tag("exception", "InvalidRequestException")
+                .counter();
+        assertThat(errors).isNotNull();
+        assertThat(errors.count()).isEqualTo(2);
+    }
+
+    /**
+     * Ogni timer pubblica p50, p95 e p99.
+     */
+    @Test
+    void timersPublishPercentiles() throws Exception {
+        for (int i = 0; i < 10; i++)
+            invoke("getVersionedBook", Optional::empty);
+
+        ValueAtPercentile[] percentiles = timer("getVersionedBook", "success", "0").takeSnapshot().percentileValues();
+        assertThat(percentiles).extracting(ValueAtPercentile::percentile).containsExactly(0.5, 0.95, 0.99);
+        assertThat(registry.find(ServiceMetricsAspect.CALLS_METRIC + ".percentile")
+                .tag("method", "getVersionedBook").gauges()).hasSize(3);
+    }
+
+    /**
+     * Collezioni, pagine e Optional vengono ricondotti alle fasce di dimensione; gli altri risultati a "none".
+     */
+    @Test
+    void sizeBucketsCoverEveryResultShape() {
+        assertThat(ServiceMetricsAspect.sizeBucket(List.of())).isEqualTo("0");
+        assertThat(ServiceMetricsAspect.sizeBucket(Optional.of(1))).isEqualTo("1");
+        assertThat(ServiceMetricsAspect.sizeBucket(Optional.empty())).isEqualTo("0");
+        assertThat(ServiceMetricsAspect.sizeBucket(Collections.nCopies(10, 1))).isEqualTo("2-10");
+        assertThat(ServiceMetricsAspect.sizeBucket(Collections.nCopies(11, 1))).isEqualTo("11-100");
+        assertThat(ServiceMetricsAspect.sizeBucket(Collections.nCopies(1000, 1))).isEqualTo("101-1000");
+        assertThat(ServiceMetricsAspect.sizeBucket(Collections.nCopies(1001, 1))).isEqualTo("1000+");
+        assertThat(ServiceMetricsAspect.sizeBucket(new BookPage(List.of(), null))).isEqualTo("0");
+        assertThat(ServiceMetricsAspect.sizeBucket(42L)).isEqualTo("none");
+        assertThat(ServiceMetricsAspect.sizeBucket(null)).isEqualTo("none");
+    }
+
+    private Timer timer(String method, String outcome, String size) {
+        Timer timer = registry.find(ServiceMetricsAspect.CALLS_METRIC)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .tag("size", size)
+                .timer();
+        assertThat(timer).as("%s %s %s", method, outcome, size).isNotNull();
+        return timer;
+    }
+
+    private Object invoke(String method, Callable<Object> call) throws Exception {
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        try {
+            when(joinPoint.proceed()).thenAnswer(invocation -> call.call());
+            return aspect.measure(joinPoint);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.giuseppe.biblioteca.repository;
+
+import com.giuseppe.biblioteca.model.Book;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.service.IBookService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plantest",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.giuseppe.biblioteca.repository.SqlCapture"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookRepositoryQueryPlanTests {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private IBookService bookService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        bookService.createBooks(IntStream.range(0, 2000)
+                .mapToObj(i -> new BookDTO(null, "Titolo " + i, "Autore " + i % 200, 1800 + i % 200, "Genere " + i % 20))
+                .iterator());
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * Verifica che ogni finder venga risolto sull'indice atteso e mai con una scansione della tabella.
+     * Sono esclusi gli elenchi completi, che leggono tutto per definizione, e la ricerca per sottostringa
+     * nel titolo: un LIKE '%x%' non può usare un indice B-tree ed è servito dall'indice a trigrammi.
+     */
+    @TestFactory
+    Stream<DynamicTest> finderPlansUseIndexes() {
+        List<PlanCase> cases = List.of(
+                new PlanCase("findByAuthor", repository -> repository.findByAuthor("Autore 1"), "IDX_BOOK_AUTHOR: AUTHOR = ?1"),
+                new PlanCase("findDTOByAuthor", repository -> repository.findDTOByAuthor("Autore 1"), "IDX_BOOK_AUTHOR: AUTHOR = ?1"),
+                new PlanCase("findByGenre", repository -> repository.findByGenre("Genere 1"), "IDX_BOOK_GENRE: GENRE = ?1"),
+                new PlanCase("findDTOByGenre", repository -> repository.findDTOByGenre("Genere 1"), "IDX_BOOK_GENRE: GENRE = ?1"),
+                new PlanCase("findByAnnoLessThan", repository -> repository.findByAnnoLessThan(1810), "IDX_BOOK_ANNO_COVERING: ANNO < ?1"),
+                new PlanCase("findDTOByAnnoLessThan", repository -> repository.findDTOByAnnoLessThan(1810), "IDX_BOOK_ANNO_COVERING: ANNO < ?1"),
+                new PlanCase("countByAuthor", repository -> repository.countByAuthor("Autore 1"), "IDX_BOOK_AUTHOR: AUTHOR = ?1"),
+                new PlanCase("findAllByOrderByAnnoDesc", BookRepository::findAllByOrderByAnnoDesc, "IDX_BOOK_ANNO_COVERING */", "index sorted"),
+                new PlanCase("findAllDTOByOrderByAnnoDesc", BookRepository::findAllDTOByOrderByAnnoDesc, "IDX_BOOK_ANNO_COVERING */", "index sorted"),
+                new PlanCase("findDTOByAnnoBetween", repository -> repository.findDTOByAnnoBetween(1810, 1820, Limit.of(20)), "IDX_BOOK_ANNO_COVERING: ANNO >= ?1 AND ANNO <= ?2", "index sorted"),
+                new PlanCase("findNewestDTO", repository -> repository.findNewestDTO(Limit.of(20)), "IDX_BOOK_ANNO_COVERING */", "index sorted"),
+                new PlanCase("findByTitleOrAuthor", repository -> repository.findByTitleOrAuthor("Titolo 1", "Autore 1"), "IDX_BOOK_TITLE: TITLE = ?1", "IDX_BOOK_AUTHOR: AUTHOR = ?2"),
+                new PlanCase("findDTOByTitleOrAuthor", repository -> repository.findDTOByTitleOrAuthor("Titolo 1", "Autore 1"), "IDX_BOOK_TITLE: TITLE = ?1", "IDX_BOOK_AUTHOR: AUTHOR = ?2"),
+                new PlanCase("countGroupByAuthor", BookRepository::countGroupByAuthor, "IDX_BOOK_AUTHOR */", "group sorted"),
+                new PlanCase("findVersionById", repository -> repository.findVersionById(1L), "PRIMARY_KEY"),
+                new PlanCase("findDTOByIdIn", repository -> repository.findDTOByIdIn(List.of(1L, 2L)), "PRIMARY_KEY"),
+                new PlanCase("findDTOByIdGreaterThan", repository -> repository.findDTOByIdGreaterThan(1L, Limit.of(10)), "PRIMARY_KEY", "index sorted"));
+
+        return cases.stream().map(planCase -> DynamicTest.dynamicTest(planCase.finder(), () -> {
+            planCase.call().accept(bookRepository);
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + SqlCapture.lastSql(), String.class);
+
+            assertThat(plan).doesNotContain("tableScan");
+            for (String fragment : planCase.expected())
+                assertThat(plan).contains(fragment);
+        }));
+    }
+
+    /**
+     * Le ricerche per titolo o autore riscritte con UNION restituiscono gli stessi libri della condizione OR
+     * originale, senza duplicati quando titolo e autore indicano lo stesso libro, anche sfogliando le pagine.
+     */
+    @Test
+    void titleOrAuthorFindersMatchTheOrCondition() {
+        List<List<String>> searches = List.of(
+                List.of("Titolo 1", "Autore 1"),
+                List.of("Titolo 5", "Autore 7"),
+                List.of("Titolo 3", "Assente"),
+                List.of("Assente", "Autore 3"),
+                List.of("Assente", "Assente"));
+
+        for (List<String> search : searches) {
+            String title = search.get(0);
+            String author = search.get(1);
+            List<Long> expected = jdbcTemplate.queryForList(
+                    "select id from book where title = ? or author = ?", Long.class, title, author);
+
+            assertThat(bookRepository.findByTitleOrAuthor(title, author))
+                    .as("%s / %s", title, author)
+                    .extracting(Book::getId)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(bookRepository.findDTOByTitleOrAuthor(title, author))
+                    .as("%s / %s", title, author)
+                    .extracting(BookDTO::id)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+
+            List<Long> sliced = new ArrayList<>();
+            Pageable pageable = PageRequest.of(0, 3, Sort.by("id"));
+            Slice<BookDTO> slice;
+            do {
+                slice = bookRepository.findDTOByTitleOrAuthor(title, author, pageable);
+                slice.forEach(book -> sliced.add(book.id()));
+                pageable = slice.nextPageable();
+            } while (slice.hasNext());
+            assertThat(sliced).as("%s / %s", title, author).isSorted().containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(bookRepository.findDTOPageByTitleOrAuthor(title, author, PageRequest.of(0, 3)).getTotalElements())
+                    .as("%s / %s", title, author)
+                    .isEqualTo(expected.size());
+        }
+    }
+
+    private record PlanCase(String finder, Consumer<BookRepository> call, String... expected) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.giuseppe.biblioteca.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * StatementInspector di test che memorizza l'ultima query SQL generata da Hibernate,
+ * così da poterne verificare il piano di esecuzione.
+ */
+public class SqlCapture implements StatementInspector {
+
+    private static volatile String lastSql;
+
+    @Override
+    public String inspect(String sql) {
+        lastSql = sql;
+        return sql;
+    }
+
+    static String lastSql() {
+        return lastSql;
+    }
+}
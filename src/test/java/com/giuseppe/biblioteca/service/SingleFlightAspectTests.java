@@ -0,0 +1,133 @@
+package com.giuseppe.biblioteca.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SingleFlightAspectTests {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    private final SingleFlightAspect aspect = new SingleFlightAspect(registry, catalogVersion, true);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    /**
+     * Le chiamate identiche che arrivano mentre la prima è bloccata ricevono tutte lo stesso risultato
+     * e la lettura viene eseguita una sola volta.
+     */
+    @Test
+    void concurrentIdenticalCallsShareOneExecution() throws Exception {
+        Object shared = new Object();
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> calls = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++)
+                calls.add(executor.submit(() -> invoke("searchBooksByTitle", () -> shared, "dune")));
+            awaitFollowers("searchBooksByTitle", CALLERS - 1);
+            release.countDown();
+
+            for (Future<Object> call : calls)
+                assertThat(call.get(5, TimeUnit.SECONDS)).isSameAs(shared);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(count("searchBooksByTitle", "leader")).isEqualTo(1);
+        assertThat(count("searchBooksByTitle", "follower")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void errorIsDeliveredToEveryWaitingCaller() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> invoke("getBookById", () -> {
+                throw new InvalidRequestException("errore");
+            }, 1L));
+            awaitExecutions(1);
+            Future<Object> follower = executor.submit(() -> invoke("getBookById", Object::new, 1L));
+            awaitFollowers("getBookById", 1);
+            release.countDown();
+
+            for (Future<Object> call : List.of(leader, follower))
+                assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(InvalidRequestException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void differentArgumentsAndSequentialCallsAreNotShared() throws Exception {
+        release.countDown();
+        invoke("findBooksByAuthor", Object::new, "Herbert");
+        invoke("findBooksByAuthor", Object::new, "Lem");
+        invoke("findBooksByAuthor", Object::new, "Lem");
+        invoke("findBooksByAuthor", Object::new, (Object) null);
+
+        assertThat(executions).hasValue(4);
+        assertThat(count("findBooksByAuthor", "follower")).isZero();
+    }
+
+    private Object invoke(String method, Callable<Object> read, Object... args) throws Exception {
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn(method);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getArgs()).thenReturn(args);
+        try {
+            when(joinPoint.proceed()).thenAnswer(invocation -> {
+                executions.incrementAndGet();
+                release.await();
+                return read.call();
+            });
+            return aspect.coalesce(joinPoint);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private void awaitExecutions(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executions.get() < count && System.nanoTime() < deadline)
+            Thread.sleep(1);
+    }
+
+    private void awaitFollowers(String method, int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(method, "follower") < followers && System.nanoTime() < deadline)
+            Thread.sleep(1);
+    }
+
+    private double count(String method, String role) {
+        var counter = registry.find(SingleFlightAspect.CALLS_METRIC).tag("method", method).tag("role", role).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,81 @@
+package com.giuseppe.biblioteca.service;
+
+import com.giuseppe.biblioteca.config.CacheConfig;
+import com.giuseppe.biblioteca.model.BookDTO;
+import com.giuseppe.biblioteca.model.VersionedBook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:versionedcachetest")
+class VersionedBookCacheTests {
+
+    @Autowired
+    private IBookService bookService;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private BookCacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Una lettura che ha caricato il libro prima di un aggiornamento e lo salva in cache dopo il commit
+     * non deve far servire la versione superata alle letture successive.
+     */
+    @Test
+    void readStoringAfterAnUpdateDoesNotServeTheOldVersion() {
+        BookDTO book = bookService.createBook(new BookDTO(null, "Titolo originale", "Autore Cache", 2001, "Romanzo"));
+        long generation = cacheInvalidator.generation(book.id());
+        VersionedBook stale = new VersionedBook(book, catalogVersion.token(0));
+
+        bookService.updateBook(book.id(), new BookDTO(null, "Titolo aggiornato", "Autore Cache", 2001, "Romanzo"));
+        cacheInvalidator.putIfCurrent(book.id(), generation, stale);
+
+        VersionedBook fresh = bookService.getVersionedBook(book.id()).orElseThrow();
+        assertThat(fresh.book().title()).isEqualTo("Titolo aggiornato");
+        assertThat(fresh.version()).isEqualTo(catalogVersion.token(1));
+        assertThat(bookService.getVersionedBook(book.id())).contains(fresh);
+    }
+
+    /**
+     * Lo stesso vale per un libro eliminato: la lettura superata non lo fa ricomparire.
+     */
+    @Test
+    void readStoringAfterADeleteDoesNotResurrectTheBook() {
+        BookDTO book = bookService.createBook(new BookDTO(null, "Da eliminare", "Autore Cache", 2002, "Romanzo"));
+        long generation = cacheInvalidator.generation(book.id());
+        VersionedBook stale = new VersionedBook(book, catalogVersion.token(0));
+
+        assertThat(bookService.deleteBook(book.id())).isTrue();
+        cacheInvalidator.putIfCurrent(book.id(), generation, stale);
+
+        assertThat(bookService.getVersionedBook(book.id())).isEmpty();
+        assertThat(bookService.getBookById(book.id())).isEmpty();
+    }
+
+    /**
+     * Una modifica rimuove dalla cache solo il libro coinvolto; gli altri restano in cache.
+     */
+    @Test
+    void writeEvictsOnlyTheChangedBook() {
+        Cache booksCache = cacheManager.getCache(CacheConfig.BOOKS_CACHE);
+        BookDTO changed = bookService.createBook(new BookDTO(null, "Modificato", "Autore Cache", 2003, "Romanzo"));
+        BookDTO untouched = bookService.createBook(new BookDTO(null, "Intatto", "Autore Cache", 2004, "Romanzo"));
+        assertThat(bookService.getBookById(changed.id())).contains(changed);
+        VersionedBook cached = bookService.getVersionedBook(untouched.id()).orElseThrow();
+
+        bookService.updateBook(changed.id(), new BookDTO(null, "Modificato", "Autore Cache", 2005, "Romanzo"));
+
+        assertThat(booksCache.get(changed.id())).isNull();
+        assertThat(booksCache.get(untouched.id(), VersionedBook.class)).isEqualTo(cached);
+        assertThat(bookService.getBookById(changed.id())).hasValueSatisfying(book -> assertThat(book.year()).isEqualTo(2005));
+    }
+}
@@ -0,0 +1,78 @@
+package com.giuseppe.biblioteca.snapshot;
+
+import com.giuseppe.biblioteca.model.BookRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotFileTests {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void roundTripPreservesEveryRow() throws IOException {
+        List<BookRow> rows = new ArrayList<>();
+        for (long id = 1; id <= 5000; id += 1 + id % 3)
+            rows.add(new BookRow(id, "Titolo " + id, "Autore " + id % 50, 1800 + (int) (id % 225), "Genere " + id % 20, id % 4));
+        rows.add(new BookRow(10_000L, null, null, -300, null, 0));
+        rows.add(new BookRow(10_001L, "Cent'anni di solitudine – ed. ñ", "García Márquez", Integer.MAX_VALUE, "", Long.MAX_VALUE));
+        rows.add(new BookRow(20_000L, "x".repeat(3 << 20), "Autore 1", Integer.MIN_VALUE, "Genere 1", 7));
+
+        Path file = directory.resolve("catalog.snapshot");
+        CatalogSnapshotFile.Summary written;
+        try (CatalogSnapshotFile.Writer writer = CatalogSnapshotFile.create(file)) {
+            for (BookRow row : rows)
+                writer.append(row);
+            written = writer.commit();
+        }
+
+        List<BookRow> read = new ArrayList<>();
+        CatalogSnapshotFile.Summary summary = CatalogSnapshotFile.read(file, read::add);
+        assertThat(read).isEqualTo(rows);
+        assertThat(summary).isEqualTo(written);
+        assertThat(summary.maxId()).isEqualTo(20_000L);
+        assertThat(directory.toFile().list()).containsExactly("catalog.snapshot");
+    }
+
+    @Test
+    void corruptedBodyIsRejected() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshotFile.Writer writer = CatalogSnapshotFile.create(file)) {
+            writer.append(new BookRow(1L, "Dune", "Herbert", 1965, "Fantascienza", 0));
+            writer.commit();
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file, bytes);
+
+        assertThatThrownBy(() -> CatalogSnapshotFile.read(file, row -> {}))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("CRC32");
+    }
+
+    @Test
+    void uncommittedSnapshotLeavesPreviousOneIntact() throws IOException {
+        Path file = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshotFile.Writer writer = CatalogSnapshotFile.create(file)) {
+            writer.append(new BookRow(1L, "Dune", "Herbert", 1965, "Fantascienza", 0));
+            writer.commit();
+        }
+        try (CatalogSnapshotFile.Writer writer = CatalogSnapshotFile.create(file)) {
+            writer.append(new BookRow(2L, "Solaris", "Lem", 1961, "Fantascienza", 0));
+        }
+
+        List<BookRow> read = new ArrayList<>();
+        CatalogSnapshotFile.read(file, read::add);
+        assertThat(read).extracting(BookRow::title).containsExactly("Dune");
+        assertThat(directory.toFile().list()).containsExactly("catalog.snapshot");
+    }
+}